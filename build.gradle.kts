@@ -1,6 +1,7 @@
 plugins {
     java
     id("io.quarkus") version "3.15.5"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -54,6 +55,39 @@ java {
     targetCompatibility = JavaVersion.VERSION_21
 }
 
+// JMH benchmarks live in src/jmh/java. Results are written as JSON so runs can be compared;
+// narrow a run with e.g. ./gradlew jmh -PjmhIncludes=AggregationBenchmark
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+// Synthetic workloads (see WorkloadGenerator/LoadTest in src/jmh/java), configured with -Pload.* properties:
+//   ./gradlew generateWorkload -Pload.rows=1000000 -Pload.out=big.csv
+//   ./gradlew loadTest -Pload.rows=2000000 -Pload.latencyMs=10 -Pload.dedup=true
+// loadTest writes its results to build/reports/load/results.json
+fun JavaExec.loadProperties() {
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    project.properties.filterKeys { it.startsWith("load.") }.forEach { (key, value) -> systemProperty(key, value.toString()) }
+}
+
+tasks.register<JavaExec>("generateWorkload") {
+    description = "Writes a synthetic user_id;message CSV"
+    mainClass.set("org.ravenpack.utils.WorkloadGenerator")
+    loadProperties()
+}
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs CsvProcessor end to end on a synthetic workload against in-process stubs"
+    mainClass.set("org.ravenpack.utils.LoadTest")
+    loadProperties()
+    systemProperty("load.report", layout.buildDirectory.file("reports/load/results.json").get().asFile.path)
+    jvmArgs("-Xmx${project.findProperty("load.heap") ?: "2g"}")
+}
+
 tasks.withType<Test> {
     systemProperty("java.util.logging.manager", "org.jboss.logmanager.LogManager")
 }
@@ -0,0 +1,41 @@
+package org.ravenpack.api;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process stand-ins for the remote translation and scoring services, with a fixed latency.
+ */
+public final class StubClients {
+
+    private StubClients() {
+    }
+
+    public static TranslationClient translation(Duration latency) {
+        return text -> delayed(Uni.createFrom().item(text), latency);
+    }
+
+    public static ScoringClient scoring(Duration latency) {
+        return new ScoringClient() {
+            @Override
+            public Uni<Double> score(String text) {
+                return delayed(Uni.createFrom().item(score0(text)), latency);
+            }
+
+            @Override
+            public Uni<List<Double>> scoreBatch(List<String> texts) {
+                return delayed(Uni.createFrom().item(texts.stream().map(StubClients::score0).toList()), latency);
+            }
+        };
+    }
+
+    private static double score0(String text) {
+        return Math.abs(text.hashCode() % 1000) / 1000.0;
+    }
+
+    private static <T> Uni<T> delayed(Uni<T> uni, Duration latency) {
+        return latency.isZero() ? uni : uni.onItem().delayIt().by(latency);
+    }
+}
@@ -0,0 +1,28 @@
+package org.ravenpack.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds a {@link CacheProvider} outside CDI, memory tier only.
+ */
+public final class BenchCaches {
+
+    private BenchCaches() {
+    }
+
+    public static CacheProvider memoryOnly(int maxSize) {
+        return memoryOnly(maxSize, null);
+    }
+
+    /**
+     * Same as {@link #memoryOnly(int)}, publishing cache statistics to {@code registry}.
+     */
+    public static CacheProvider memoryOnly(int maxSize, MeterRegistry registry) {
+        var provider = new CacheProvider();
+        provider.registry = registry;
+        provider.maxSize = maxSize;
+        provider.expireAfterWriteSeconds = 300;
+        provider.diskEnabled = false;
+        return provider;
+    }
+}
@@ -0,0 +1,31 @@
+package org.ravenpack.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds a {@link LimiterProvider} outside CDI with the settings of {@code application.properties},
+ * so benchmarks can run the pipeline the way it runs with {@code limiter.enabled=true}.
+ */
+public final class BenchLimiters {
+
+    private BenchLimiters() {
+    }
+
+    /**
+     * Limiters starting at {@code initialLimit} calls in flight, like {@code processing.concurrency}.
+     */
+    public static LimiterProvider defaults(int initialLimit, MeterRegistry registry) {
+        var provider = new LimiterProvider();
+        provider.registry = registry;
+        provider.enabled = true;
+        provider.algorithm = "gradient";
+        provider.initialLimit = initialLimit;
+        provider.minLimit = 4;
+        provider.maxLimit = 256;
+        provider.maxQueue = 1024;
+        provider.backoffRatio = 0.9;
+        provider.tolerance = 1.5;
+        provider.slowCallMs = 250;
+        return provider;
+    }
+}
@@ -0,0 +1,120 @@
+package org.ravenpack.service;
+
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AggregationService#add} under contention and the cost of {@link AggregationService#snapshot}.
+ * A small user count models popular users all reporting at once. The legacy variants run the
+ * previous compute-based implementation as a baseline. With {@code topK}, {@code add} also feeds a
+ * {@link TopScores} ranking, as it does for jobs with {@code jobs.top.enabled}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"16", "100000"})
+    int users;
+
+    @Param({"false", "true"})
+    boolean topK;
+
+    String[] userIds;
+    AggregationService agg;
+    LegacyAggregation legacy;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        userIds = new String[users];
+        agg = new AggregationService();
+        legacy = new LegacyAggregation();
+        if (topK) {
+            agg.track(new TopScores(5));
+        }
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+            agg.add(userIds[i], 0.5);
+            legacy.add(userIds[i], 0.5);
+        }
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void addContended() {
+        var random = ThreadLocalRandom.current();
+        agg.add(userIds[random.nextInt(users)], random.nextDouble());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void legacyAddContended() {
+        var random = ThreadLocalRandom.current();
+        legacy.add(userIds[random.nextInt(users)], random.nextDouble());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void addSingleThread() {
+        var random = ThreadLocalRandom.current();
+        agg.add(userIds[random.nextInt(users)], random.nextDouble());
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object snapshot() {
+        return agg.snapshot();
+    }
+
+    /**
+     * The aggregation as it was before striping: a boxed accumulator updated inside
+     * ConcurrentHashMap.compute, logging while the bin lock is held.
+     */
+    static final class LegacyAggregation {
+        private static final Logger LOG = Logger.getLogger(LegacyAggregation.class);
+
+        static final class Agg {
+            int count;
+            double sum;
+        }
+
+        private final Map<String, Agg> map = new ConcurrentHashMap<>();
+
+        void add(String userId, double score) {
+            map.compute(userId, (k, v) -> {
+                if (v == null) {
+                    v = new Agg();
+                    LOG.debugf("🆕 New user detected: %s", userId);
+                }
+                v.count += 1;
+                v.sum += score;
+                double newAvg = v.sum / v.count;
+                LOG.debugf("📈 Updated stats for user %s: %d messages, avg score: %.6f (latest: %.6f)",
+                        userId, v.count, newAvg, score);
+                return v;
+            });
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.ravenpack.service;
+
+import org.ravenpack.api.ScoringClient;
+import org.ravenpack.api.TranslationClient;
+import org.ravenpack.config.CacheProvider;
+
+/**
+ * Wires the services by hand, the way CDI would, so benchmarks can run them without Quarkus.
+ * Fault-tolerance interceptors are not applied.
+ */
+public final class BenchServices {
+
+    private BenchServices() {
+    }
+
+    public static TranslationService translation(TranslationClient client, CacheProvider caches) {
+        var service = new TranslationService();
+        service.client = client;
+        service.init(caches);
+        return service;
+    }
+
+    public static ScoringService scoring(ScoringClient client, CacheProvider caches) {
+        var service = new ScoringService();
+        service.client = client;
+        service.init(caches);
+        return service;
+    }
+}
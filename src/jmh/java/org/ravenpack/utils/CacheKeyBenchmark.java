@@ -0,0 +1,43 @@
+package org.ravenpack.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache key derivation: the SHA-256 hex path used before versus the 128-bit {@link CacheKey}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    @Param({
+            "hello everyone!",
+            "this is terrible! i hate everything about this, and i will keep saying it until someone listens."
+    })
+    String text;
+
+    @Benchmark
+    public String sha256Hex() {
+        return MessageNormalizer.hash("s|" + text);
+    }
+
+    @Benchmark
+    public CacheKey murmur128() {
+        return MessageNormalizer.key('s', text);
+    }
+}
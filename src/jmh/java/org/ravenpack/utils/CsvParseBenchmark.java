@@ -0,0 +1,99 @@
+package org.ravenpack.utils;
+
+import com.univocity.parsers.common.record.Record;
+import com.univocity.parsers.csv.CsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming parse of a generated file shaped like sample-messages.csv, with the pipeline's parser settings,
+ * on one parser and in parallel chunks on every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    static final String[] MESSAGES = {
+            "\"Hello everyone! How are you doing today?\"",
+            "\"This is terrible! I hate everything about this.\"",
+            "\"Good morning! ☀️ Have a wonderful day ahead!\"",
+            "\"hëllo everyone!!! How are you doing today? 🌟\"",
+            "\"buenos días, me gusta el gato\"",
+            "\"This is TERRIBLE! I HATE everything about this!!!\""
+    };
+
+    @Param({"1000000"})
+    int rows;
+
+    Path input;
+
+    @Setup(Level.Trial)
+    public void writeInput() throws Exception {
+        input = Files.createTempFile("parse-bench", ".csv");
+        writeSample(input, rows, 10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteInput() throws Exception {
+        Files.deleteIfExists(input);
+    }
+
+    @Benchmark
+    public long parse(Blackhole bh) throws Exception {
+        var parser = new CsvParser(CsvProcessor.parserSettings());
+        parser.beginParsing(new FileReader(input.toFile(), StandardCharsets.UTF_8));
+        long count = 0;
+        Record rec;
+        while ((rec = parser.parseNextRecord()) != null) {
+            bh.consume(rec.getString("user_id"));
+            bh.consume(rec.getString("message"));
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long parseParallel(Blackhole bh) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        var reader = ParallelCsvReader.plan(input, threads * 4).orElseThrow();
+        return reader.records(threads, new PipelineProgress())
+                .onItem().invoke(rec -> {
+                    bh.consume(rec.getString("user_id"));
+                    bh.consume(rec.getString("message"));
+                })
+                .collect().with(java.util.stream.Collectors.counting())
+                .await().indefinitely();
+    }
+
+    static void writeSample(Path file, int rows, int users) throws Exception {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("user_id;message\n");
+            for (int i = 0; i < rows; i++) {
+                w.write("user" + (i % users) + ";" + MESSAGES[i % MESSAGES.length] + "\n");
+            }
+        }
+    }
+}
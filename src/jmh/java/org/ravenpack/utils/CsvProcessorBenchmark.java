@@ -0,0 +1,100 @@
+package org.ravenpack.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ravenpack.api.StubClients;
+import org.ravenpack.config.BenchCaches;
+import org.ravenpack.config.BenchLimiters;
+import org.ravenpack.service.BenchServices;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link CsvProcessor} run against in-process stub clients. Each iteration starts with
+ * cold caches, so the stub latency is paid once per distinct message. With {@code limiter}, the
+ * adaptive limiters run with their configured defaults and the stages fan out to their maximum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvProcessorBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"0", "5"})
+    int latencyMs;
+
+    @Param({"32"})
+    int concurrency;
+
+    @Param({"false", "true"})
+    boolean dedup;
+
+    @Param({"false", "true"})
+    boolean skipEnglish;
+
+    @Param({"false", "true"})
+    boolean limiter;
+
+    Path input;
+    Path output;
+    CsvProcessor processor;
+
+    @Setup(Level.Trial)
+    public void writeInput() throws Exception {
+        input = Files.createTempFile("pipeline-bench", ".csv");
+        output = Files.createTempFile("pipeline-bench-out", ".csv");
+        CsvParseBenchmark.writeSample(input, rows, 1_000);
+    }
+
+    @Setup(Level.Iteration)
+    public void wirePipeline() {
+        var latency = Duration.ofMillis(latencyMs);
+        var caches = BenchCaches.memoryOnly(100_000);
+        processor = new CsvProcessor();
+        processor.translation = BenchServices.translation(StubClients.translation(latency), caches);
+        processor.scoring = BenchServices.scoring(StubClients.scoring(latency), caches);
+        processor.translationConcurrency = concurrency;
+        processor.scoringConcurrency = concurrency;
+        processor.dedupEnabled = dedup;
+        processor.skipEnglish = skipEnglish;
+        processor.outputPartitions = 1;
+        processor.outputSort = "none";
+        processor.outputBufferBytes = 1 << 20;
+        processor.parseThreads = 1;
+        processor.parseMinBytes = 64L << 20;
+        processor.checkpointEnabled = false;
+        processor.registry = new SimpleMeterRegistry();
+        processor.limiters = limiter ? BenchLimiters.defaults(concurrency, processor.registry) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void process() throws Exception {
+        processor.process(input.toString(), output.toString());
+    }
+}
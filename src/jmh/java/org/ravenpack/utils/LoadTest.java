@@ -0,0 +1,192 @@
+package org.ravenpack.utils;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ravenpack.api.StubClients;
+import org.ravenpack.config.BenchCaches;
+import org.ravenpack.config.BenchLimiters;
+import org.ravenpack.service.BenchServices;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput test: generates a {@link WorkloadGenerator} input and runs
+ * {@link CsvProcessor} over it against the in-process stub clients, then reports messages per
+ * second, per-message latency percentiles, peak heap and cache hit rates. Unlike
+ * {@code CsvProcessorBenchmark} the input is large and realistic enough to show scaling problems;
+ * unlike JMH it runs once, so it can use inputs that take minutes.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; besides the {@link WorkloadGenerator.Spec} properties it reads
+ * {@code load.latencyMs}, {@code load.concurrency}, {@code load.dedup}, {@code load.skipEnglish},
+ * {@code load.limiter} (adaptive limiters with their configured defaults), {@code load.warmupRuns} and
+ * {@code load.report} (a JSON file to compare runs, optional).
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var spec = WorkloadGenerator.Spec.fromSystemProperties();
+        long latencyMs = Long.getLong("load.latencyMs", 5);
+        int concurrency = Integer.getInteger("load.concurrency", 256);
+        boolean dedup = Boolean.getBoolean("load.dedup");
+        boolean skipEnglish = Boolean.parseBoolean(System.getProperty("load.skipEnglish", "true"));
+        boolean limiter = Boolean.getBoolean("load.limiter");
+        int warmupRuns = Integer.getInteger("load.warmupRuns", 1);
+        String report = System.getProperty("load.report");
+
+        Path input = Files.createTempFile("workload-", ".csv");
+        Path output = Files.createTempFile("workload-out-", ".csv");
+        try {
+            long start = System.nanoTime();
+            WorkloadGenerator.write(input, spec);
+            System.out.printf("Generated %d rows (%d MB) in %d ms: %s%n", spec.rows(), Files.size(input) >> 20,
+                    (System.nanoTime() - start) / 1_000_000, spec);
+
+            for (int i = 0; i < warmupRuns; i++) {
+                run(input, output, latencyMs, concurrency, dedup, skipEnglish, limiter, new SimpleMeterRegistry());
+                System.out.printf("Warm-up run %d done%n", i + 1);
+            }
+            System.gc();
+
+            var registry = new SimpleMeterRegistry();
+            // Percentiles over the whole run rather than the default two-minute window
+            registry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder()
+                            .expiry(Duration.ofDays(1))
+                            .bufferLength(1)
+                            .build()
+                            .merge(config);
+                }
+            });
+            var heap = new PeakHeap();
+            start = System.nanoTime();
+            run(input, output, latencyMs, concurrency, dedup, skipEnglish, limiter, registry);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long peakHeap = heap.stop();
+
+            Timer message = registry.find("pipeline.stage").tag("stage", "message").timer();
+            double p50 = percentile(message, 0.5);
+            double p99 = percentile(message, 0.99);
+            double processed = counter(registry, "pipeline.messages.processed");
+            double failed = counter(registry, "pipeline.messages.failed");
+            double translationHits = hitRate(registry, "translation");
+            double scoringHits = hitRate(registry, "scoring");
+
+            System.out.printf(Locale.ROOT, """
+                    Processed %.0f messages (%.0f failed) in %.2f s
+                      throughput       %.0f msgs/s
+                      latency p50/p99  %.2f / %.2f ms per message
+                      peak heap        %d MB
+                      cache hit rate   translation %.1f%%, scoring %.1f%%
+                    """, processed, failed, seconds, spec.rows() / seconds, p50, p99, peakHeap >> 20,
+                    translationHits * 100, scoringHits * 100);
+            if (report != null) {
+                Path reportFile = Path.of(report);
+                if (reportFile.getParent() != null) {
+                    Files.createDirectories(reportFile.getParent());
+                }
+                Files.writeString(reportFile, String.format(Locale.ROOT, """
+                                {"rows":%d,"users":%d,"distinct":%d,"latencyMs":%d,"concurrency":%d,"dedup":%b,\
+                                "skipEnglish":%b,"limiter":%b,"seconds":%.3f,"messagesPerSecond":%.1f,\
+                                "p50Ms":%.3f,"p99Ms":%.3f,"peakHeapBytes":%d,"translationHitRate":%.4f,"scoringHitRate":%.4f,"failed":%.0f}
+                                """, spec.rows(), spec.users(), spec.distinct(), latencyMs, concurrency, dedup,
+                        skipEnglish, limiter, seconds, spec.rows() / seconds, p50, p99, peakHeap, translationHits,
+                        scoringHits, failed));
+                System.out.println("Report written to " + reportFile.toAbsolutePath());
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void run(Path input, Path output, long latencyMs, int concurrency, boolean dedup,
+                            boolean skipEnglish, boolean limiter, MeterRegistry registry) throws Exception {
+        var latency = Duration.ofMillis(latencyMs);
+        var caches = BenchCaches.memoryOnly(100_000, registry);
+        var processor = new CsvProcessor();
+        processor.translation = BenchServices.translation(StubClients.translation(latency), caches);
+        processor.scoring = BenchServices.scoring(StubClients.scoring(latency), caches);
+        processor.translationConcurrency = concurrency;
+        processor.scoringConcurrency = concurrency;
+        processor.dedupEnabled = dedup;
+        processor.skipEnglish = skipEnglish;
+        processor.outputPartitions = 1;
+        processor.outputSort = "none";
+        processor.outputBufferBytes = 1 << 20;
+        processor.parseThreads = 0;
+        processor.parseMinBytes = 64L << 20;
+        processor.checkpointEnabled = false;
+        processor.registry = registry;
+        // With limiters the stages fan out to limiter.maxLimit, whatever the concurrency
+        processor.limiters = limiter ? BenchLimiters.defaults(concurrency, registry) : null;
+        processor.process(input.toString(), output.toString());
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        if (timer == null) {
+            return Double.NaN;
+        }
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double counter(MeterRegistry registry, String name) {
+        var counter = registry.find(name).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static double hitRate(MeterRegistry registry, String cache) {
+        double hits = registry.find("cache.gets").tags("cache", cache, "result", "hit").functionCounters().stream()
+                .mapToDouble(c -> c.count()).sum();
+        double misses = registry.find("cache.gets").tags("cache", cache, "result", "miss").functionCounters().stream()
+                .mapToDouble(c -> c.count()).sum();
+        return hits + misses == 0 ? Double.NaN : hits / (hits + misses);
+    }
+
+    /**
+     * Samples used heap every 10ms; the sum of per-pool peaks would overstate it, since pools peak at
+     * different times.
+     */
+    private static final class PeakHeap {
+        private final AtomicLong peak = new AtomicLong();
+        private final ScheduledExecutorService sampler =
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    var thread = new Thread(r, "peak-heap");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        PeakHeap() {
+            var memory = ManagementFactory.getMemoryMXBean();
+            sampler.scheduleAtFixedRate(() -> peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                    0, 10, TimeUnit.MILLISECONDS);
+        }
+
+        long stop() {
+            sampler.shutdownNow();
+            return peak.get();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.ravenpack.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizerBenchmark {
+
+    @Param({
+            "Hello everyone! How are you doing today?",
+            "  hëllo   everyone !!! How are you doing today? 🌟",
+            "Buenos días, ¿cómo estás? Me gusta el gato."
+    })
+    String message;
+
+    @Benchmark
+    public String normalize() {
+        return MessageNormalizer.normalize(message);
+    }
+
+    @Benchmark
+    public String hash() {
+        return MessageNormalizer.hash(message);
+    }
+
+    @Benchmark
+    public CacheKey normalizeAndKey() {
+        return MessageNormalizer.key('t', MessageNormalizer.normalize(message));
+    }
+}
@@ -0,0 +1,66 @@
+package org.ravenpack.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Trie translation against the per-entry regex replacement the dev stub used before, with the
+ * built-in dictionary padded with synthetic entries up to {@code entries}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhraseTranslatorBenchmark {
+
+    @Param({"0", "100000"})
+    int entries;
+
+    String message = "Buenos días amigo, me gusta mucho el gato pequeño pero no me gusta el perro";
+
+    Map<String, String> dictionary;
+    PhraseTranslator translator;
+
+    @Setup
+    public void setup() {
+        dictionary = SpanishTranslationDictionary.getSpanishToEnglishDictionary();
+        for (int i = 0; dictionary.size() < entries; i++) {
+            dictionary.put("palabra" + i + (i % 4 == 0 ? " frase" + i : ""), "word" + i);
+        }
+        translator = new PhraseTranslator(dictionary);
+    }
+
+    @Benchmark
+    public String trie() {
+        return translator.translate(message);
+    }
+
+    @Benchmark
+    public String regexPerEntry() {
+        // Too slow to measure at 100k entries; the trie result stands on its own there
+        if (entries > 0) {
+            return message;
+        }
+        String result = message.toLowerCase();
+        for (Map.Entry<String, String> entry : new HashMap<>(dictionary).entrySet()) {
+            result = result.replaceAll("\\b" + Pattern.quote(entry.getKey()) + "\\b", entry.getValue());
+        }
+        return result;
+    }
+}
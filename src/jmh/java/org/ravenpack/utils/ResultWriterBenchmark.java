@@ -0,0 +1,86 @@
+package org.ravenpack.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ravenpack.model.OutputData;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the per-user results: {@link ResultWriter} versus the original BufferedWriter and
+ * {@code String.format} loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultWriterBenchmark {
+
+    @Param({"1000000"})
+    int users;
+
+    @Param({"1", "8"})
+    int partitions;
+
+    List<OutputData> results;
+    Path dir;
+
+    @Setup
+    public void generate() throws Exception {
+        var random = new Random(42);
+        results = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            int count = 1 + random.nextInt(50);
+            results.add(new OutputData("user" + i, count, random.nextInt(count * 1000 + 1) / (count * 1000.0)));
+        }
+        dir = Files.createTempDirectory("result-writer-bench");
+    }
+
+    @TearDown
+    public void deleteFiles() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path p : files.toList()) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public List<Path> resultWriter() throws Exception {
+        return new ResultWriter(partitions, ResultWriter.Sort.NONE, 1 << 20).write(results, dir.resolve("out.csv"));
+    }
+
+    @Benchmark
+    public void legacyFormatLoop() throws Exception {
+        try (var w = new BufferedWriter(new FileWriter(dir.resolve("legacy.csv").toFile(), StandardCharsets.UTF_8))) {
+            w.write("user_id;total_messages;avg_score");
+            w.newLine();
+            for (OutputData o : results) {
+                w.write(o.userId() + ";" + o.totalMessages() + ";" + String.format(Locale.US, "%.6f", o.avgScore()));
+                w.newLine();
+            }
+        }
+    }
+}
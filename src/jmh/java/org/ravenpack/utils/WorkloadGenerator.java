@@ -0,0 +1,157 @@
+package org.ravenpack.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic {@code user_id;message} CSV inputs of any size.
+ * <p>
+ * Rows draw a message from a pool of {@code distinct} messages and a sender from {@code users},
+ * both Zipf-distributed: a few messages and users account for most rows, the way spam and heavy
+ * posters do, so the exponents control the duplicate rate the caches see. Each pool message is
+ * Spanish with probability {@code spanishRatio}, otherwise English, and has between
+ * {@code minWords} and {@code maxWords} words. Repeats of a message vary in case, punctuation and
+ * spacing, so duplicates only match after normalization. Output is deterministic for a seed.
+ * <p>
+ * Standalone use: {@code ./gradlew generateWorkload -Pload.rows=1000000 -Pload.out=big.csv}
+ */
+public final class WorkloadGenerator {
+
+    private static final List<String> ENGLISH = List.of(
+            "the", "and", "is", "this", "that", "you", "we", "they", "it", "was", "are", "have", "not",
+            "with", "for", "about", "really", "very", "today", "everyone", "people", "thing", "work",
+            "good", "great", "bad", "terrible", "amazing", "love", "hate", "like", "think", "know",
+            "feature", "update", "problem", "idea", "team", "product", "service", "support", "weather",
+            "morning", "night", "happy", "sad", "stupid", "wonderful", "awful", "thanks", "please", "help");
+
+    private static final String[] ENDINGS = {"", ".", "!", "!!!", "?", " 🌟", " 😡", "..."};
+
+    public record Spec(long rows, int users, int distinct, double messageSkew, double userSkew,
+                       double spanishRatio, int minWords, int maxWords, long seed) {
+
+        public Spec {
+            if (rows < 0 || users < 1 || distinct < 1 || minWords < 1 || maxWords < minWords
+                    || spanishRatio < 0 || spanishRatio > 1 || messageSkew < 0 || userSkew < 0) {
+                throw new IllegalArgumentException("Invalid workload " + this);
+            }
+        }
+
+        /** Reads {@code load.*} system properties, with defaults sized for a quick local run. */
+        public static Spec fromSystemProperties() {
+            long rows = Long.getLong("load.rows", 1_000_000);
+            return new Spec(
+                    rows,
+                    Integer.getInteger("load.users", 10_000),
+                    Integer.getInteger("load.distinct", (int) Math.max(1, Math.min(rows / 5, 1_000_000))),
+                    doubleProperty("load.messageSkew", 1.0),
+                    doubleProperty("load.userSkew", 0.8),
+                    doubleProperty("load.spanishRatio", 0.5),
+                    Integer.getInteger("load.minWords", 3),
+                    Integer.getInteger("load.maxWords", 20),
+                    Long.getLong("load.seed", 42));
+        }
+    }
+
+    private WorkloadGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Spec spec = Spec.fromSystemProperties();
+        Path out = Path.of(System.getProperty("load.out", "workload.csv"));
+        long start = System.nanoTime();
+        write(out, spec);
+        System.out.printf("Wrote %d rows (%d users, %d distinct messages) to %s in %d ms%n",
+                spec.rows(), spec.users(), spec.distinct(), out.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public static void write(Path file, Spec spec) throws IOException {
+        String[] spanish = SpanishTranslationDictionary.getSpanishToEnglishDictionary().keySet().stream()
+                .sorted().toArray(String[]::new);
+        String[] english = ENGLISH.toArray(String[]::new);
+        var messages = new Zipf(spec.distinct(), spec.messageSkew());
+        var users = new Zipf(spec.users(), spec.userSkew());
+        var random = new SplittableRandom(spec.seed());
+        // Shuffle user ids against popularity so the heaviest user is not always user0
+        int[] userIds = new int[spec.users()];
+        for (int i = 0; i < userIds.length; i++) {
+            int j = random.nextInt(i + 1);
+            userIds[i] = userIds[j];
+            userIds[j] = i;
+        }
+
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("user_id;message\n");
+            var line = new StringBuilder(256);
+            for (long i = 0; i < spec.rows(); i++) {
+                int message = messages.sample(random);
+                int user = users.sample(random);
+                line.setLength(0);
+                line.append("user").append(userIds[user]).append(";\"");
+                appendMessage(line, message, spec, spanish, english, random);
+                line.append("\"\n");
+                w.append(line);
+            }
+        }
+    }
+
+    // The words of a pool message depend only on its index; the surface variant on the row
+    private static void appendMessage(StringBuilder out, int message, Spec spec, String[] spanish, String[] english,
+                                      SplittableRandom rowRandom) {
+        var words = new SplittableRandom(spec.seed() ^ (message + 1) * 0xBF58476D1CE4E5B9L);
+        String[] vocabulary = words.nextDouble() < spec.spanishRatio() ? spanish : english;
+        int count = spec.minWords() + words.nextInt(spec.maxWords() - spec.minWords() + 1);
+        int variant = rowRandom.nextInt(8);
+        int start = out.length();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.append(variant == 3 ? "  " : " ");
+            }
+            out.append(vocabulary[words.nextInt(vocabulary.length)]);
+        }
+        if (variant == 1 || variant == 2) {
+            out.setCharAt(start, Character.toUpperCase(out.charAt(start)));
+        } else if (variant == 4) {
+            for (int i = start; i < out.length(); i++) {
+                out.setCharAt(i, Character.toUpperCase(out.charAt(i)));
+            }
+        }
+        out.append(ENDINGS[words.nextInt(ENDINGS.length) + variant & 7]);
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1/(rank+1)^skew, by binary search over
+     * the cumulative distribution. Skew 0 is uniform.
+     */
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double skew) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int i = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,52 @@
+package org.ravenpack.api;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.utils.PhraseTranslator;
+import org.ravenpack.utils.SpanishTranslationDictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * In-process {@link TranslationClient}: translates with a {@link PhraseTranslator} over
+ * {@link SpanishTranslationDictionary}, plus an optional tab-separated dictionary file, without a
+ * network call. Selected with {@code translation.client=embedded}.
+ */
+@ApplicationScoped
+public class EmbeddedTranslationClient implements TranslationClient {
+
+    private static final Logger LOG = Logger.getLogger(EmbeddedTranslationClient.class);
+
+    @Inject
+    @ConfigProperty(name = "translation.embedded.dictionary")
+    Optional<String> dictionaryFile;
+
+    private PhraseTranslator translator;
+
+    @PostConstruct
+    void init() {
+        if (dictionaryFile.isEmpty()) {
+            translator = SpanishTranslationDictionary.translator();
+        } else {
+            translator = new PhraseTranslator(SpanishTranslationDictionary.getSpanishToEnglishDictionary());
+            try {
+                translator.load(Path.of(dictionaryFile.get()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read translation dictionary " + dictionaryFile.get(), e);
+            }
+        }
+        LOG.infof("📖 Embedded translation with %d dictionary entries", translator.size());
+    }
+
+    @Override
+    public Uni<String> translate(String text) {
+        return Uni.createFrom().item(() -> translator.translate(text));
+    }
+}
@@ -1,14 +1,29 @@
 package org.ravenpack.api;
 
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import io.smallrye.mutiny.Uni;
 
+import java.util.List;
+
 @Path("/score")
 @RegisterRestClient(configKey = "scoring")
 public interface ScoringClient {
     @GET
     Uni<Double> score(@QueryParam("q") String text);
-}
\ No newline at end of file
+
+    /**
+     * Scores several texts in one round trip. The returned scores are in the same order as the texts.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    Uni<List<Double>> scoreBatch(List<String> texts);
+}
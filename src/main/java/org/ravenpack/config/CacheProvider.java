@@ -2,15 +2,28 @@ package org.ravenpack.config;
 
 import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.utils.CacheKey;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class CacheProvider {
+
+    private static final Logger LOG = Logger.getLogger(CacheProvider.class);
+
     @Inject
     @ConfigProperty(name = "cache.maxSize", defaultValue = "100000")
     int maxSize;
@@ -19,17 +32,82 @@ public class CacheProvider {
     @ConfigProperty(name = "cache.expireAfterWrite", defaultValue = "300")
     int expireAfterWriteSeconds;
 
-    public AsyncCache<String, Uni<String>> translationCache() {
-        return Caffeine.newBuilder()
+    @Inject
+    @ConfigProperty(name = "cache.disk.enabled", defaultValue = "false")
+    boolean diskEnabled;
+
+    @Inject
+    @ConfigProperty(name = "cache.disk.dir", defaultValue = "cache")
+    String diskDir;
+
+    @Inject
+    @ConfigProperty(name = "cache.disk.maxBytes", defaultValue = "268435456")
+    long diskMaxBytes;
+
+    @Inject
+    @ConfigProperty(name = "cache.disk.translation.ttl", defaultValue = "604800")
+    long translationDiskTtlSeconds;
+
+    @Inject
+    @ConfigProperty(name = "cache.disk.scoring.ttl", defaultValue = "86400")
+    long scoringDiskTtlSeconds;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, DiskCacheTier> diskTiers = new ConcurrentHashMap<>();
+
+    public AsyncCache<CacheKey, Uni<String>> translationCache() {
+        return monitor(Caffeine.newBuilder()
                 .maximumSize(maxSize)
                 .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
-                .<String, Uni<String>>buildAsync();
+                .recordStats()
+                .<CacheKey, Uni<String>>buildAsync(), "translation");
     }
 
-    public AsyncCache<String, Uni<Double>> scoringCache() {
-        return Caffeine.newBuilder()
+    public AsyncCache<CacheKey, Uni<Double>> scoringCache() {
+        return monitor(Caffeine.newBuilder()
                 .maximumSize(maxSize)
                 .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
-                .<String, Uni<Double>>buildAsync();
+                .recordStats()
+                .<CacheKey, Uni<Double>>buildAsync(), "scoring");
+    }
+
+    // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size and cache.load.duration
+    private <V> AsyncCache<CacheKey, V> monitor(AsyncCache<CacheKey, V> cache, String name) {
+        return registry == null ? cache : CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    public Optional<DiskCacheTier> translationDiskTier() {
+        return diskTier("translation", translationDiskTtlSeconds);
+    }
+
+    public Optional<DiskCacheTier> scoringDiskTier() {
+        return diskTier("scoring", scoringDiskTtlSeconds);
+    }
+
+    private Optional<DiskCacheTier> diskTier(String name, long ttlSeconds) {
+        if (!diskEnabled) {
+            return Optional.empty();
+        }
+        try {
+            // One tier per log file: two writers appending to the same file would corrupt it
+            return Optional.of(diskTiers.computeIfAbsent(name, n -> {
+                try {
+                    return new DiskCacheTier(n, Path.of(diskDir, n + ".log"),
+                            TimeUnit.SECONDS.toMillis(ttlSeconds), diskMaxBytes);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        } catch (IllegalStateException e) {
+            LOG.warnf("⚠️ Disk cache '%s' unavailable, using memory only: %s", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    void closeDiskTiers() {
+        diskTiers.values().forEach(DiskCacheTier::close);
     }
 }
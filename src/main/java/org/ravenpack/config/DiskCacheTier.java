@@ -0,0 +1,318 @@
+package org.ravenpack.config;
+
+import org.jboss.logging.Logger;
+import org.ravenpack.utils.CacheKey;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Second cache tier on local disk, kept behind the in-memory Caffeine caches so that warm
+ * restarts do not pay full downstream latency again.
+ * <p>
+ * Entries live in an append-only log file; an in-memory index maps each key to the offset of
+ * its latest record. Reads are positional reads served from the OS page cache. Writes are
+ * queued and appended in batches by a background thread (write-behind), so callers never wait
+ * for disk. Overwritten and expired records are dropped when the log is compacted, and
+ * compaction also enforces the size cap by keeping only the newest entries.
+ */
+public class DiskCacheTier implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(DiskCacheTier.class);
+
+    // Record layout: key hi (long), key lo (long), writtenAt (long), valueLength (int), value bytes
+    private static final int HEADER_BYTES = 3 * Long.BYTES + Integer.BYTES;
+    private static final long MIN_COMPACTION_BYTES = 1L << 20;
+    private static final int WRITE_QUEUE_CAPACITY = 10_000;
+    private static final int WRITE_BATCH = 1024;
+
+    private record Entry(long offset, int length, long writtenAt) {}
+
+    private record Write(CacheKey key, String value, long writtenAt) {}
+
+    private final String name;
+    private final Path file;
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final Map<CacheKey, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final BlockingQueue<Write> writes = new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY);
+    // Readers share the lock; compaction takes it exclusively while it swaps the log file
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread writer;
+
+    private FileChannel channel;
+    private long size;
+    private volatile boolean closed;
+
+    public DiskCacheTier(String name, Path file, long ttlMillis, long maxBytes) throws IOException {
+        this.name = name;
+        this.file = file;
+        this.ttlMillis = ttlMillis;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = recover();
+        LOG.infof("💽 Disk cache '%s' opened at %s with %d entries (%d bytes)", name, file, index.size(), size);
+        if (needsCompaction()) {
+            compact();
+        }
+        this.writer = new Thread(this::runWriter, "disk-cache-" + name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns the stored value, or null if the key is unknown or its entry has expired.
+     */
+    public String get(CacheKey key) {
+        lock.readLock().lock();
+        try {
+            Entry e = index.get(key);
+            if (e == null) {
+                return null;
+            }
+            if (isExpired(e, System.currentTimeMillis())) {
+                if (index.remove(key, e)) {
+                    liveBytes.addAndGet(-e.length());
+                }
+                return null;
+            }
+            ByteBuffer buf = ByteBuffer.allocate(e.length());
+            readFully(channel, buf, e.offset());
+            int valueLength = buf.getInt(3 * Long.BYTES);
+            return new String(buf.array(), HEADER_BYTES, valueLength, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            LOG.warnf("⚠️ Disk cache '%s' read failed: %s", name, ex.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether {@link #get(CacheKey)} would find an unexpired entry, without reading it from disk.
+     */
+    public boolean contains(CacheKey key) {
+        Entry e = index.get(key);
+        return e != null && !isExpired(e, System.currentTimeMillis());
+    }
+
+    /**
+     * Queues the value to be appended to the log. If the writer falls behind, the write is dropped;
+     * the entry is still served from the memory tier and will be written again on a later miss.
+     */
+    public void put(CacheKey key, String value) {
+        if (closed || key == null || value == null) {
+            return;
+        }
+        if (!writes.offer(new Write(key, value, System.currentTimeMillis()))) {
+            LOG.debugf("💽 Disk cache '%s' write queue full, dropping entry", name);
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private boolean isExpired(Entry e, long now) {
+        return now - e.writtenAt() > ttlMillis;
+    }
+
+    private boolean needsCompaction() {
+        return size > maxBytes || (size > MIN_COMPACTION_BYTES && size > 2 * liveBytes.get());
+    }
+
+    private void runWriter() {
+        List<Write> batch = new ArrayList<>(WRITE_BATCH);
+        while (!closed || !writes.isEmpty()) {
+            try {
+                Write first = writes.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                writes.drainTo(batch, WRITE_BATCH - 1);
+                append(batch);
+                if (needsCompaction()) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                LOG.warnf("⚠️ Disk cache '%s' write failed: %s", name, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Writer thread only
+    private void append(List<Write> batch) throws IOException {
+        List<byte[]> values = new ArrayList<>(batch.size());
+        int total = 0;
+        for (Write w : batch) {
+            byte[] v = w.value().getBytes(StandardCharsets.UTF_8);
+            values.add(v);
+            total += HEADER_BYTES + v.length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(total);
+        for (int i = 0; i < batch.size(); i++) {
+            Write w = batch.get(i);
+            buf.putLong(w.key().hi())
+                    .putLong(w.key().lo())
+                    .putLong(w.writtenAt())
+                    .putInt(values.get(i).length)
+                    .put(values.get(i));
+        }
+        buf.flip();
+        long start = size;
+        while (buf.hasRemaining()) {
+            channel.write(buf, start + buf.position());
+        }
+
+        // Publish offsets only after the bytes are in the file
+        long offset = start;
+        for (int i = 0; i < batch.size(); i++) {
+            int length = HEADER_BYTES + values.get(i).length;
+            index(batch.get(i).key(), new Entry(offset, length, batch.get(i).writtenAt()));
+            offset += length;
+        }
+        size = offset;
+    }
+
+    private void index(CacheKey key, Entry entry) {
+        Entry previous = index.put(key, entry);
+        liveBytes.addAndGet(entry.length() - (previous == null ? 0 : previous.length()));
+    }
+
+    /**
+     * Rewrites the log with only live entries, newest first, up to three quarters of the size cap so
+     * that the next compaction is not triggered by the very next append.
+     */
+    private void compact() throws IOException {
+        long now = System.currentTimeMillis();
+        long budget = maxBytes / 4 * 3;
+        List<Map.Entry<CacheKey, Entry>> live = index.entrySet().stream()
+                .filter(e -> !isExpired(e.getValue(), now))
+                .sorted(Comparator.comparingLong((Map.Entry<CacheKey, Entry> e) -> e.getValue().writtenAt()).reversed())
+                .toList();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        Map<CacheKey, Entry> compacted = new ConcurrentHashMap<>();
+        long position = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<CacheKey, Entry> e : live) {
+                Entry entry = e.getValue();
+                if (position + entry.length() > budget) {
+                    break;
+                }
+                long copied = 0;
+                while (copied < entry.length()) {
+                    copied += channel.transferTo(entry.offset() + copied, entry.length() - copied, out);
+                }
+                compacted.put(e.getKey(), new Entry(position, entry.length(), entry.writtenAt()));
+                position += entry.length();
+            }
+            out.force(false);
+        }
+
+        lock.writeLock().lock();
+        try {
+            channel.close();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.clear();
+            index.putAll(compacted);
+            liveBytes.set(position);
+            LOG.debugf("🧹 Disk cache '%s' compacted from %d to %d bytes (%d entries)", name, size, position, compacted.size());
+            size = position;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the log. A record cut short by a crash ends the scan and is truncated.
+     */
+    private long recover() throws IOException {
+        long end = channel.size();
+        long position = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16))) {
+            while (position + HEADER_BYTES <= end) {
+                var key = new CacheKey(in.readLong(), in.readLong());
+                long writtenAt = in.readLong();
+                int valueLength = in.readInt();
+                int length = HEADER_BYTES + valueLength;
+                if (valueLength < 0 || position + length > end) {
+                    break;
+                }
+                in.skipNBytes(valueLength);
+                index(key, new Entry(position, length, writtenAt));
+                position += length;
+            }
+        } catch (EOFException e) {
+            // Torn record at the tail, handled below
+        }
+        if (position < end) {
+            LOG.warnf("⚠️ Disk cache '%s' has a torn record at offset %d, truncating", name, position);
+        }
+        // Closing the stream above closed the channel as well
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (position < end) {
+            channel.truncate(position);
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long offset) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, offset + buf.position()) < 0) {
+                throw new EOFException("Unexpected end of cache log");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Disk cache '%s' close failed: %s", name, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
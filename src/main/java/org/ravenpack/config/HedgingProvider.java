@@ -0,0 +1,94 @@
+package org.ravenpack.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.service.Hedger;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link Hedger} per remote service, with its delay and counters published as
+ * {@code hedging.*} meters tagged by service name.
+ */
+@ApplicationScoped
+public class HedgingProvider {
+
+    private static final Logger LOG = Logger.getLogger(HedgingProvider.class);
+
+    @Inject
+    @ConfigProperty(name = "hedging.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "hedging.percentile", defaultValue = "0.95")
+    double percentile;
+
+    @Inject
+    @ConfigProperty(name = "hedging.budget", defaultValue = "0.05")
+    double budget;
+
+    @Inject
+    @ConfigProperty(name = "hedging.minDelayMs", defaultValue = "10")
+    long minDelayMs;
+
+    @Inject
+    @ConfigProperty(name = "hedging.window", defaultValue = "1024")
+    int window;
+
+    @Inject
+    @ConfigProperty(name = "hedging.minSamples", defaultValue = "100")
+    int minSamples;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Hedger> hedgers = new ConcurrentHashMap<>();
+
+    public Optional<Hedger> translationHedger() {
+        return hedger("translation");
+    }
+
+    public Optional<Hedger> scoringHedger() {
+        return hedger("scoring");
+    }
+
+    private Optional<Hedger> hedger(String name) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(hedgers.computeIfAbsent(name, n -> {
+            var hedger = new Hedger(n, percentile, budget, minDelayMs, window, minSamples);
+            register(hedger);
+            LOG.infof("🏇 Hedging %s calls slower than p%.1f, at most %.1f%% extra calls",
+                    n, percentile * 100, budget * 100);
+            return hedger;
+        }));
+    }
+
+    private void register(Hedger hedger) {
+        if (registry == null) {
+            return;
+        }
+        String service = hedger.name();
+        Gauge.builder("hedging.delay", hedger, Hedger::delayMillis)
+                .tag("service", service)
+                .baseUnit("milliseconds")
+                .description("Latency after which a duplicate call is sent, -1 until enough samples")
+                .register(registry);
+        FunctionCounter.builder("hedging.sent", hedger, Hedger::hedges)
+                .tag("service", service)
+                .description("Duplicate calls sent")
+                .register(registry);
+        FunctionCounter.builder("hedging.wins", hedger, Hedger::wins)
+                .tag("service", service)
+                .description("Duplicate calls that answered before the original")
+                .register(registry);
+    }
+}
@@ -0,0 +1,131 @@
+package org.ravenpack.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.service.AdaptiveLimiter;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveLimiter} per remote service, with its state published as
+ * {@code limiter.*} meters tagged by service name.
+ */
+@ApplicationScoped
+public class LimiterProvider {
+
+    private static final Logger LOG = Logger.getLogger(LimiterProvider.class);
+
+    @Inject
+    @ConfigProperty(name = "limiter.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "limiter.algorithm", defaultValue = "gradient")
+    String algorithm;
+
+    @Inject
+    @ConfigProperty(name = "limiter.initialLimit", defaultValue = "${processing.concurrency:32}")
+    int initialLimit;
+
+    @Inject
+    @ConfigProperty(name = "limiter.minLimit", defaultValue = "4")
+    int minLimit;
+
+    @Inject
+    @ConfigProperty(name = "limiter.maxLimit", defaultValue = "256")
+    int maxLimit;
+
+    @Inject
+    @ConfigProperty(name = "limiter.maxQueue", defaultValue = "1024")
+    int maxQueue;
+
+    @Inject
+    @ConfigProperty(name = "limiter.backoffRatio", defaultValue = "0.9")
+    double backoffRatio;
+
+    @Inject
+    @ConfigProperty(name = "limiter.tolerance", defaultValue = "1.5")
+    double tolerance;
+
+    @Inject
+    @ConfigProperty(name = "limiter.slowCallMs", defaultValue = "250")
+    long slowCallMs;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public Optional<AdaptiveLimiter> translationLimiter() {
+        return limiter("translation");
+    }
+
+    public Optional<AdaptiveLimiter> scoringLimiter() {
+        return limiter("scoring");
+    }
+
+    /**
+     * How many pipeline items a stage should keep in flight: the configured concurrency, raised to
+     * the limiter's maximum so that the limiter, not the stage, decides how many calls go out. Items
+     * over the limit wait for a slot before their call starts, outside its timeout.
+     */
+    public int fanOut(int configured) {
+        return enabled ? Math.max(configured, maxLimit) : configured;
+    }
+
+    private Optional<AdaptiveLimiter> limiter(String name) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(limiters.computeIfAbsent(name, n -> {
+            var limiter = new AdaptiveLimiter(n, AdaptiveLimiter.parseAlgorithm(algorithm), initialLimit,
+                    minLimit, maxLimit, maxQueue, backoffRatio, tolerance, slowCallMs);
+            register(limiter);
+            LOG.infof("🚦 Adaptive %s limiter for %s calls: %d in flight to start, between %d and %d",
+                    algorithm, n, limiter.limit(), minLimit, maxLimit);
+            return limiter;
+        }));
+    }
+
+    private void register(AdaptiveLimiter limiter) {
+        if (registry == null) {
+            return;
+        }
+        String service = limiter.name();
+        Gauge.builder("limiter.limit", limiter, AdaptiveLimiter::limit)
+                .tag("service", service)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("limiter.inflight", limiter, AdaptiveLimiter::inFlight)
+                .tag("service", service)
+                .description("Calls currently in flight")
+                .register(registry);
+        Gauge.builder("limiter.queued", limiter, AdaptiveLimiter::queued)
+                .tag("service", service)
+                .description("Calls waiting for a free slot")
+                .register(registry);
+        Gauge.builder("limiter.rtt", limiter, AdaptiveLimiter::shortRttMillis)
+                .tag("service", service)
+                .tag("window", "short")
+                .baseUnit("milliseconds")
+                .description("Recent average call latency")
+                .register(registry);
+        Gauge.builder("limiter.rtt", limiter, AdaptiveLimiter::longRttMillis)
+                .tag("service", service)
+                .tag("window", "long")
+                .baseUnit("milliseconds")
+                .description("Long-term call latency baseline")
+                .register(registry);
+        FunctionCounter.builder("limiter.rejections", limiter, AdaptiveLimiter::rejections)
+                .tag("service", service)
+                .description("Calls rejected because the limit was reached and the queue was full")
+                .register(registry);
+    }
+}
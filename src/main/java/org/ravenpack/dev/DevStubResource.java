@@ -1,68 +1,168 @@
 package org.ravenpack.dev;
 
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 import org.ravenpack.utils.SpanishTranslationDictionary;
 
+/**
+ * Stand-ins for the translation and scoring services. Responses are delayed with timers rather than
+ * sleeping worker threads, so the stubs keep up with far more concurrent calls than the pipeline
+ * under test makes. Latency and failures of each stub can be changed at runtime under
+ * {@code /dev/admin/stubs}, see {@link StubBehavior}. Those endpoints are unauthenticated, so they
+ * answer 404 unless {@code dev.stubs.admin.enabled} is set, as the dev and test profiles do.
+ */
 @Path("/dev")
 @ApplicationScoped
 public class DevStubResource {
+
+    private static final Logger LOG = Logger.getLogger(DevStubResource.class);
+
+    static final String TRANSLATE = "translate";
+    static final String SCORE = "score";
+
+    private final Map<String, StubBehavior> behaviors = new ConcurrentHashMap<>(Map.of(
+            TRANSLATE, StubBehavior.DEFAULT,
+            SCORE, StubBehavior.DEFAULT));
+
+    @Inject
+    @ConfigProperty(name = "dev.stubs.admin.enabled", defaultValue = "false")
+    boolean adminEnabled;
+
     @GET
     @Path("/translate")
     @Produces(MediaType.TEXT_PLAIN)
-    public String translate(@QueryParam("q") String q) throws InterruptedException {
-        Thread.sleep(ThreadLocalRandom.current().nextLong(50, 201));
-        
-        if (q == null || q.trim().isEmpty()) {
-            return q;
-        }
-        
-        return translateSpanishToEnglish(q.trim());
+    public Uni<String> translate(@QueryParam("q") String q) {
+        return respond(TRANSLATE, () -> q == null || q.trim().isEmpty() ? q : translateSpanishToEnglish(q.trim()));
     }
     
     /**
-     * Basic Spanish to English translation using word/phrase substitution
+     * Basic Spanish to English translation using word/phrase substitution, longest phrase first
      * @param text The Spanish text to translate
      * @return Translated English text
      */
     private String translateSpanishToEnglish(String text) {
-        String result = text.toLowerCase();
-        Map<String, String> dictionary = SpanishTranslationDictionary.getSpanishToEnglishDictionary();
-        
-        // First, try to match complete phrases (longer matches first)
-        for (Map.Entry<String, String> entry : dictionary.entrySet()) {
-            String spanishPhrase = entry.getKey();
-            String englishPhrase = entry.getValue();
-            
-            // Use word boundaries to ensure we're matching complete words/phrases
-            String pattern = "\\b" + Pattern.quote(spanishPhrase) + "\\b";
-            result = result.replaceAll(pattern, englishPhrase);
-        }
-        
-        // Preserve original case if the original was all uppercase or title case
-        if (text.equals(text.toUpperCase())) {
-            result = result.toUpperCase();
-        } else if (Character.isUpperCase(text.charAt(0))) {
-            result = Character.toUpperCase(result.charAt(0)) + result.substring(1);
-        }
-        
-        return result;
+        return SpanishTranslationDictionary.translator().translate(text);
     }
 
     @GET
     @Path("/score")
     @Produces(MediaType.TEXT_PLAIN)
-    public String score(@QueryParam("q") String q) throws InterruptedException {
-        Thread.sleep(ThreadLocalRandom.current().nextLong(50, 201));
-        double v = Math.abs(q.hashCode() % 1000) / 1000.0;
-        return String.valueOf(v);
+    public Uni<String> score(@QueryParam("q") String q) {
+        return respond(SCORE, () -> String.valueOf(stubScore(q)));
+    }
+
+    /**
+     * Batch variant of {@link #score(String)}: one simulated round trip for the whole batch.
+     */
+    @POST
+    @Path("/score/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<List<Double>> scoreBatch(List<String> texts) {
+        return respond(SCORE, () -> texts.stream().map(DevStubResource::stubScore).toList());
+    }
+
+    private static double stubScore(String q) {
+        return Math.abs(q.hashCode() % 1000) / 1000.0;
+    }
+
+    // The delay runs on a timer; failures are decided up front but reported after the delay, like a slow error
+    private <T> Uni<T> respond(String stub, Supplier<T> answer) {
+        StubBehavior behavior = behaviors.get(stub);
+        var random = ThreadLocalRandom.current();
+        long delayMillis = behavior.delayMillis(random);
+        int status = behavior.failureStatus(random);
+        Uni<Void> delay = Uni.createFrom().voidItem();
+        if (delayMillis > 0) {
+            delay = delay.onItem().delayIt().by(Duration.ofMillis(delayMillis));
+        }
+        return delay.map(ignored -> {
+            if (status != 0) {
+                throw new WebApplicationException(failure(status));
+            }
+            return answer.get();
+        });
     }
-}
 
+    private static Response failure(int status) {
+        var response = Response.status(status).type(MediaType.TEXT_PLAIN).entity("Simulated failure");
+        if (status == 429 || status == 503) {
+            response.header("Retry-After", 1);
+        }
+        return response.build();
+    }
+
+    @GET
+    @Path("/admin/stubs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, StubBehavior> behaviors() {
+        requireAdmin();
+        return new TreeMap<>(behaviors);
+    }
+
+    /**
+     * Replaces the behavior of one stub ({@code translate} or {@code score}, which also covers
+     * {@code /score/batch}).
+     */
+    @PUT
+    @Path("/admin/stubs/{stub}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response configure(@PathParam("stub") String stub, StubBehavior behavior) {
+        requireAdmin();
+        if (!behaviors.containsKey(stub)) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("{\"error\":\"Unknown stub, use translate or score\"}")
+                    .build();
+        }
+        String problem = behavior == null ? "missing behavior" : behavior.validate();
+        if (problem != null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\":\"" + problem + "\"}")
+                    .build();
+        }
+        behaviors.put(stub, behavior);
+        LOG.infof("🎛️ Stub %s now responds with %s", stub, behavior);
+        return Response.ok(behavior).build();
+    }
+
+    @DELETE
+    @Path("/admin/stubs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, StubBehavior> reset() {
+        requireAdmin();
+        behaviors.replaceAll((stub, behavior) -> StubBehavior.DEFAULT);
+        LOG.info("🎛️ Stubs reset to their default behavior");
+        return behaviors();
+    }
+
+    // Anyone who can reach the port could otherwise slow down or break the stubs
+    private void requireAdmin() {
+        if (!adminEnabled) {
+            throw new NotFoundException();
+        }
+    }
+}
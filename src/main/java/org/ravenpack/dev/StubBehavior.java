@@ -0,0 +1,102 @@
+package org.ravenpack.dev;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * How a stub endpoint of {@link DevStubResource} responds: a latency distribution and the share of
+ * calls that fail with 429, 503 or 500.
+ * <ul>
+ *   <li>{@code fixed}: always {@code delayMs}</li>
+ *   <li>{@code uniform}: between {@code minMs} and {@code maxMs}</li>
+ *   <li>{@code lognormal}: median {@code delayMs}, spread {@code sigma} (1.0 gives p99 ≈ 10x the median)</li>
+ *   <li>{@code bimodal}: uniform between {@code minMs} and {@code maxMs}, except a {@code slowRatio}
+ *   share of calls that take {@code slowMs}</li>
+ * </ul>
+ * Rates are fractions of calls; they are drawn independently in the order throttled (429),
+ * unavailable (503), error (500).
+ */
+public record StubBehavior(
+        String distribution,
+        long delayMs,
+        long minMs,
+        long maxMs,
+        double sigma,
+        long slowMs,
+        double slowRatio,
+        double throttleRate,
+        double unavailableRate,
+        double errorRate) {
+
+    /** Upper bound on any simulated latency, so a bad lognormal draw cannot park a request for hours. */
+    static final long MAX_DELAY_MS = 60_000;
+
+    /** What the stubs always did: 50–200ms, no failures. */
+    public static final StubBehavior DEFAULT = new StubBehavior("uniform", 0, 50, 200, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * Returns why this behavior cannot be used, or null if it is valid.
+     */
+    public String validate() {
+        if (distribution == null) {
+            return "distribution is required (fixed, uniform, lognormal or bimodal)";
+        }
+        switch (distribution) {
+            case "fixed", "lognormal" -> {
+                if (delayMs < 0) {
+                    return "delayMs must not be negative";
+                }
+                if (distribution.equals("lognormal") && sigma < 0) {
+                    return "sigma must not be negative";
+                }
+            }
+            case "uniform", "bimodal" -> {
+                if (minMs < 0 || maxMs < minMs) {
+                    return "need 0 <= minMs <= maxMs";
+                }
+                if (distribution.equals("bimodal") && (slowMs < 0 || slowRatio < 0 || slowRatio > 1)) {
+                    return "need slowMs >= 0 and 0 <= slowRatio <= 1";
+                }
+            }
+            default -> {
+                return "unknown distribution " + distribution + " (fixed, uniform, lognormal or bimodal)";
+            }
+        }
+        for (double rate : new double[]{throttleRate, unavailableRate, errorRate}) {
+            if (rate < 0 || rate > 1) {
+                return "rates must be between 0 and 1";
+            }
+        }
+        return null;
+    }
+
+    long delayMillis(RandomGenerator random) {
+        long millis = switch (distribution) {
+            case "fixed" -> delayMs;
+            case "uniform" -> uniform(random);
+            case "lognormal" -> Math.round(delayMs * Math.exp(sigma * random.nextGaussian()));
+            case "bimodal" -> random.nextDouble() < slowRatio ? slowMs : uniform(random);
+            default -> throw new IllegalStateException("Unknown distribution " + distribution);
+        };
+        return Math.min(millis, MAX_DELAY_MS);
+    }
+
+    private long uniform(RandomGenerator random) {
+        return minMs == maxMs ? minMs : random.nextLong(minMs, maxMs + 1);
+    }
+
+    /**
+     * Returns the HTTP status to fail with, or 0 to answer normally.
+     */
+    int failureStatus(RandomGenerator random) {
+        if (throttleRate > 0 && random.nextDouble() < throttleRate) {
+            return 429;
+        }
+        if (unavailableRate > 0 && random.nextDouble() < unavailableRate) {
+            return 503;
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            return 500;
+        }
+        return 0;
+    }
+}
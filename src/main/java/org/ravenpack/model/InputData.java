@@ -1,3 +1,14 @@
 package org.ravenpack.model;
 
-public record InputData(String userId, String message) {}
+import java.time.Instant;
+
+/**
+ * One input row. {@code timestamp} is null when the input has no timestamp column or the value
+ * could not be parsed.
+ */
+public record InputData(String userId, String message, Instant timestamp) {
+
+    public InputData(String userId, String message) {
+        this(userId, message, null);
+    }
+}
@@ -0,0 +1,25 @@
+package org.ravenpack.model;
+
+/**
+ * Snapshot of an asynchronous CSV job. Counts are messages (rows); {@code totalBytes},
+ * {@code etaSeconds} are -1 when unknown.
+ */
+public record JobStatus(String id,
+                        State state,
+                        long read,
+                        long processed,
+                        long failed,
+                        long inFlight,
+                        long bytesRead,
+                        long totalBytes,
+                        double throughput,
+                        double etaSeconds,
+                        double elapsedSeconds,
+                        String error) {
+
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public boolean finished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+}
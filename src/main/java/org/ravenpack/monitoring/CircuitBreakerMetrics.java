@@ -0,0 +1,55 @@
+package org.ravenpack.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.ravenpack.service.ScoringService;
+import org.ravenpack.service.TranslationService;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counts state transitions of the named circuit breakers and publishes their current state.
+ * Retries, timeouts and calls per outcome come from SmallRye Fault Tolerance's own
+ * {@code ft.*} metrics.
+ */
+@ApplicationScoped
+public class CircuitBreakerMetrics {
+
+    private static final Logger LOG = Logger.getLogger(CircuitBreakerMetrics.class);
+
+    @Inject
+    CircuitBreakerMaintenance maintenance;
+
+    @Inject
+    MeterRegistry registry;
+
+    void register(@Observes StartupEvent event) {
+        for (String name : List.of(TranslationService.CIRCUIT_BREAKER, ScoringService.CIRCUIT_BREAKER)) {
+            Gauge.builder("circuitbreaker.state", () -> ordinal(maintenance.currentState(name)))
+                    .tag("name", name)
+                    .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+                    .register(registry);
+            maintenance.onStateChange(name, state -> {
+                registry.counter("circuitbreaker.transitions",
+                        "name", name, "state", state.name().toLowerCase(Locale.ROOT)).increment();
+                LOG.warnf("🔌 Circuit breaker '%s' is now %s", name, state);
+            });
+        }
+    }
+
+    private static int ordinal(CircuitBreakerState state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+}
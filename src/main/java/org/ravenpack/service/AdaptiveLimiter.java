@@ -0,0 +1,241 @@
+package org.ravenpack.service;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many calls to a remote service are in flight, adapting the limit to the latency and
+ * errors it observes. Calls over the limit wait in a bounded queue without blocking a thread, and
+ * are rejected with {@link LimitExceededException} once the queue is full.
+ * <p>
+ * The limit only moves while the caller actually uses at least half of it, so an idle or
+ * cache-bound pipeline does not inflate it. Two algorithms are available:
+ * <ul>
+ *     <li>{@link Algorithm#GRADIENT}: compares a short-term average RTT with a long-term baseline.
+ *     While they agree the limit grows by about its square root per sample; once recent calls get
+ *     slower than {@code tolerance} times the baseline it shrinks in proportion. The baseline is a
+ *     slow average, so a backend that stays slower eventually becomes the new normal.</li>
+ *     <li>{@link Algorithm#AIMD}: adds one per successful sample and multiplies by
+ *     {@code backoffRatio} when a call fails or takes longer than {@code slowCallMillis}.</li>
+ * </ul>
+ * With both algorithms a failed or cancelled call (e.g. a timeout) backs the limit off.
+ */
+public class AdaptiveLimiter {
+
+    // Smoothing of the short- and long-term RTT averages, roughly 1/window in samples
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 1.0 / 600;
+    // How much of a new gradient estimate is applied at once
+    private static final double SMOOTHING = 0.2;
+
+    public enum Algorithm {
+        GRADIENT, AIMD
+    }
+
+    /**
+     * Thrown when a call is neither admitted nor allowed to wait because the queue is full.
+     */
+    public static class LimitExceededException extends RuntimeException {
+        public LimitExceededException(String name, int limit) {
+            super("Concurrency limit " + limit + " of '" + name + "' reached and queue is full");
+        }
+    }
+
+    private final String name;
+    private final Algorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final long slowCallNanos;
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private final AtomicLong rejections = new AtomicLong();
+
+    // Guarded by this
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveLimiter(String name, Algorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                           int maxQueue, double backoffRatio, double tolerance, long slowCallMillis) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.backoffRatio = Math.min(1.0, Math.max(0.1, backoffRatio));
+        this.tolerance = Math.max(1.0, tolerance);
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Subscribes to the call once a slot is free and releases the slot when it terminates, feeding
+     * its latency and outcome back into the limit.
+     */
+    public <T> Uni<T> run(Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<Void> slot = acquire();
+            return Uni.createFrom().completionStage(slot)
+                    .onCancellation().invoke(() -> {
+                        // Cancelled while queued; if the slot was granted in the meantime, hand it back
+                        if (!slot.cancel(false) && !slot.isCompletedExceptionally()) {
+                            release(0, false);
+                        }
+                    })
+                    .onItem().transformToUni(ignored -> {
+                        long start = System.nanoTime();
+                        return Uni.createFrom().deferred(call)
+                                .onTermination().invoke((item, failure, cancelled) ->
+                                        release(System.nanoTime() - start, failure != null || cancelled));
+                    });
+        });
+    }
+
+    private CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() < maxQueue) {
+                var waiter = new CompletableFuture<Void>();
+                waiters.add(waiter);
+                return waiter;
+            }
+        }
+        rejections.incrementAndGet();
+        return CompletableFuture.failedFuture(new LimitExceededException(name, limit()));
+    }
+
+    private void release(long rttNanos, boolean dropped) {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            if (rttNanos > 0 || dropped) {
+                sample(rttNanos, dropped);
+            }
+            inFlight--;
+            next = nextWaiter();
+        }
+        // Complete outside the lock: the waiter's call starts on this thread
+        while (next != null) {
+            if (next.complete(null)) {
+                return;
+            }
+            // The waiter was cancelled after it was dequeued; give its slot to the next one
+            synchronized (this) {
+                inFlight--;
+                next = nextWaiter();
+            }
+        }
+    }
+
+    // Guarded by this: dequeues a live waiter and takes a slot for it, if one is free
+    private CompletableFuture<Void> nextWaiter() {
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            var waiter = waiters.poll();
+            if (!waiter.isDone()) {
+                inFlight++;
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the limit with one completed call. {@code inFlight} still counts that call.
+     */
+    synchronized void sample(long rttNanos, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * backoffRatio);
+            return;
+        }
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + SHORT_ALPHA * (rttNanos - shortRttNanos);
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + LONG_ALPHA * (rttNanos - longRttNanos);
+        // The backend got permanently faster: let the baseline catch up instead of waiting 600 samples
+        if (shortRttNanos < longRttNanos / 2) {
+            longRttNanos = shortRttNanos * 2;
+        }
+        boolean appLimited = inFlight * 2 < limit;
+
+        switch (algorithm) {
+            case AIMD -> {
+                if (slowCallNanos > 0 && rttNanos > slowCallNanos) {
+                    limit = clamp(limit * backoffRatio);
+                } else if (!appLimited) {
+                    limit = clamp(limit + 1);
+                }
+            }
+            case GRADIENT -> {
+                if (appLimited) {
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+                double target = limit * gradient + Math.sqrt(limit);
+                limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+            }
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    /** Short-term average RTT in milliseconds, 0 before the first sample. */
+    public synchronized double shortRttMillis() {
+        return shortRttNanos / 1e6;
+    }
+
+    /** Long-term RTT baseline in milliseconds, 0 before the first sample. */
+    public synchronized double longRttMillis() {
+        return longRttNanos / 1e6;
+    }
+
+    public long rejections() {
+        return rejections.get();
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Parses an algorithm name from configuration, case-insensitively.
+     */
+    public static Algorithm parseAlgorithm(String value) {
+        try {
+            return Algorithm.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown limiter.algorithm value '" + value + "', expected gradient or aimd");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s[%s limit=%d inFlight=%d queued=%d rtt=%.1f/%.1f ms]",
+                name, algorithm, limit(), inFlight(), queued(), shortRttMillis(), longRttMillis());
+    }
+}
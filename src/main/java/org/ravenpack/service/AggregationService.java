@@ -2,39 +2,156 @@ package org.ravenpack.service;
 
 import org.jboss.logging.Logger;
 import org.ravenpack.model.OutputData;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AggregationService {
     
     private static final Logger LOG = Logger.getLogger(AggregationService.class);
-    
-    public static class Agg {
-        public int count;
-        public double sum;
+
+    /**
+     * Per-user message count and score sum. Both are striped adders: concurrent completions for
+     * the same user land in separate cells instead of queueing on a lock, and the cells are
+     * only summed when a snapshot is taken.
+     */
+    static final class Cell {
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
     }
 
-    private final Map<String, Agg> map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Cell> cells = new ConcurrentHashMap<>();
+
+    // Null for all-time totals
+    private final TimeWindows windows;
+
+    // Null unless someone reads a live ranking of this run
+    private TopScores top;
+
+    public AggregationService() {
+        this(null);
+    }
+
+    /**
+     * With {@code windows}, rows added with a time are aggregated over that time window instead
+     * of all time, and {@link #get(String)} and {@link #snapshot()} report window totals.
+     */
+    public AggregationService(TimeWindows windows) {
+        this.windows = windows;
+    }
+
+    public boolean windowed() {
+        return windows != null;
+    }
+
+    /**
+     * Also feeds every score added from now on, and restored totals, into {@code top}. The ranking
+     * is always over all-time totals, even when windowed. Call before the first add.
+     */
+    public void track(TopScores top) {
+        this.top = top;
+    }
 
     public void add(String userId, double score) {
-        map.compute(userId, (k, v) -> {
-            if (v == null) {
-                v = new Agg();
-                LOG.debugf("🆕 New user detected: %s", userId);
+        add(userId, score, 1);
+    }
+
+    /**
+     * Records {@code count} messages from the same user that all received {@code score}.
+     */
+    public void add(String userId, double score, int count) {
+        // Plain get first: computeIfAbsent would lock the bin even when the user already exists
+        Cell cell = cells.get(userId);
+        if (cell == null) {
+            cell = cells.computeIfAbsent(userId, k -> new Cell());
+        }
+        cell.count.add(count);
+        cell.sum.add(score * count);
+        if (top != null) {
+            top.add(userId, count, score * count);
+        }
+    }
+
+    /**
+     * Records {@code count} messages from the same user scored {@code score}, sent at
+     * {@code timeMillis} (epoch millis; negative for "now"). The time only matters when windowed.
+     */
+    public void add(String userId, double score, int count, long timeMillis) {
+        if (windows == null) {
+            add(userId, score, count);
+            return;
+        }
+        windows.add(userId, score, count, timeMillis < 0 ? System.currentTimeMillis() : timeMillis);
+        if (top != null) {
+            top.add(userId, count, score * count);
+        }
+    }
+
+    /**
+     * Receives the raw per-user totals, e.g. to persist them.
+     */
+    @FunctionalInterface
+    public interface TotalsVisitor {
+        void visit(String userId, long count, double sum);
+    }
+
+    /**
+     * Adds previously exported all-time totals for a user, e.g. when resuming from a checkpoint.
+     */
+    public void restore(String userId, long count, double sum) {
+        Cell cell = cells.computeIfAbsent(userId, k -> new Cell());
+        cell.count.add(count);
+        cell.sum.add(sum);
+        if (top != null) {
+            top.add(userId, count, sum);
+        }
+    }
+
+    /**
+     * Visits the raw all-time totals of every user. Only consistent if no adds run concurrently.
+     */
+    public void forEachTotal(TotalsVisitor visitor) {
+        cells.forEach((userId, cell) -> {
+            long count = cell.count.sum();
+            if (count > 0) {
+                visitor.visit(userId, count, cell.sum.sum());
             }
-            v.count += 1;
-            v.sum += score;
-            double newAvg = v.sum / v.count;
-            LOG.debugf("📈 Updated stats for user %s: %d messages, avg score: %.6f (latest: %.6f)", 
-                    userId, v.count, newAvg, score);
-            return v;
         });
     }
 
+    /**
+     * Current totals for one user, or null if no score has been added for them yet.
+     */
+    public OutputData get(String userId) {
+        if (windows != null) {
+            return windows.get(userId);
+        }
+        Cell cell = cells.get(userId);
+        if (cell == null) {
+            return null;
+        }
+        long count = cell.count.sum();
+        return count > 0 ? new OutputData(userId, (int) count, cell.sum.sum() / count) : null;
+    }
+
     public Iterable<OutputData> snapshot() {
-        var results = map.entrySet().stream()
-                .map(e -> new OutputData(e.getKey(), e.getValue().count, e.getValue().sum / e.getValue().count))
-                .toList();
+        if (windows != null) {
+            List<OutputData> results = windows.snapshot();
+            LOG.debugf("📈 Generated %s window snapshot with %d users",
+                    windows.mode().name().toLowerCase(Locale.ROOT), results.size());
+            return results;
+        }
+        List<OutputData> results = new ArrayList<>(cells.size());
+        cells.forEach((userId, cell) -> {
+            long count = cell.count.sum();
+            // A cell can be visible before its first add lands
+            if (count > 0) {
+                results.add(new OutputData(userId, (int) count, cell.sum.sum() / count));
+            }
+        });
         LOG.debugf("📈 Generated aggregation snapshot with %d unique users", results.size());
         return results;
     }
@@ -0,0 +1,432 @@
+package org.ravenpack.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.utils.CsvProcessor;
+import org.ravenpack.utils.PipelineProgress;
+import org.ravenpack.utils.ResultWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running ingestion of CSV drops: watches {@code watch.dir} and runs every new file matching
+ * {@code watch.pattern} through the pipeline, one file at a time, using the same warm caches for
+ * all of them. Per-user totals accumulate across files and are published to {@code watch.output}
+ * every {@code watch.snapshotIntervalMs}.
+ * <p>
+ * A file is picked up once its size and modification time have not changed for
+ * {@code watch.settleMs}, so drops that are still being copied are left alone. Each file is
+ * aggregated on its own and only merged into the running totals once every row of it was scored,
+ * so a file that cannot be read adds nothing. A file with rows that failed downstream (timeouts, an
+ * open circuit) adds nothing either and is tried again after {@code watch.retryMs}, doubled on each
+ * further attempt up to 32 times that. After {@code watch.maxAttempts} such attempts the rows of the
+ * last one that did succeed are merged and the file counts as ingested, with its failed rows logged
+ * and counted in {@code watch.rows.failed}, so that a row that can never be scored does not hold
+ * back the rest of its file.
+ * <p>
+ * The names of the files ingested so far and the running totals are written together to
+ * {@code watch.state}, at most every {@code watch.snapshotIntervalMs} and when the watch stops; on
+ * restart both are restored, files dropped while the service was down are picked up, and a file
+ * name that is already in the ledger is never ingested again, even if the file changed. A crash
+ * loses the files ingested since the last write from the ledger and the totals alike, so they are
+ * ingested again rather than counted twice.
+ */
+@ApplicationScoped
+public class DirectoryWatcher {
+
+    private static final Logger LOG = Logger.getLogger(DirectoryWatcher.class);
+
+    private static final int MAGIC = 0x52505731; // "RPW1"
+
+    static final String JOB = "watch";
+
+    @ConfigProperty(name = "watch.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "watch.dir", defaultValue = "inbox")
+    String dir;
+
+    @ConfigProperty(name = "watch.pattern", defaultValue = "*.csv")
+    String pattern;
+
+    @ConfigProperty(name = "watch.settleMs", defaultValue = "2000")
+    long settleMs;
+
+    @ConfigProperty(name = "watch.snapshotIntervalMs", defaultValue = "60000")
+    long snapshotIntervalMs;
+
+    @ConfigProperty(name = "watch.retryMs", defaultValue = "30000")
+    long retryMs;
+
+    @ConfigProperty(name = "watch.maxAttempts", defaultValue = "5")
+    int maxAttempts;
+
+    @ConfigProperty(name = "watch.output", defaultValue = "watch/aggregates.csv")
+    String output;
+
+    @ConfigProperty(name = "watch.state", defaultValue = "watch/state.bin")
+    String state;
+
+    @ConfigProperty(name = "output.sort", defaultValue = "none")
+    String outputSort;
+
+    @Inject
+    CsvProcessor processor;
+
+    @Inject
+    MeterRegistry registry;
+
+    /** Ingested file name -> rows read from it. Only touched by the watch thread. */
+    private final Map<String, Long> ledger = new LinkedHashMap<>();
+    /** Candidate files and the size/modification time last seen. Only touched by the watch thread. */
+    private final Map<Path, Seen> pending = new HashMap<>();
+    /** Attempts so far of files whose rows failed downstream. Only touched by the watch thread. */
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private final AggregationService totals = new AggregationService();
+    // Held while a file is merged into totals and while a snapshot is taken, so a snapshot never
+    // has half a file; not the monitor, which stop() holds while it waits for the watch thread
+    private final Object totalsLock = new Object();
+    // Bumped whenever totals change, so unchanged snapshots are not rewritten
+    private final AtomicLong version = new AtomicLong();
+    private long publishedVersion;
+    // Only touched by the watch thread
+    private boolean stateDirty;
+    private long persistedAt;
+
+    private record Seen(long size, long modified, long since) {}
+
+    private volatile boolean running;
+    private Thread watchThread;
+    private ScheduledExecutorService snapshots;
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            start();
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stop();
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        Path inbox = Path.of(dir);
+        try {
+            Files.createDirectories(inbox);
+            restore();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch " + inbox.toAbsolutePath(), e);
+        }
+        running = true;
+        watchThread = new Thread(() -> watch(inbox), "csv-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "csv-watch-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshots.scheduleWithFixedDelay(this::publishQuietly, snapshotIntervalMs, snapshotIntervalMs,
+                TimeUnit.MILLISECONDS);
+        LOG.infof("👀 Watching %s for %s files (%d already ingested), snapshots to %s every %d ms",
+                inbox.toAbsolutePath(), pattern, ledger.size(), output, snapshotIntervalMs);
+    }
+
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        watchThread.interrupt();
+        try {
+            watchThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshots.shutdownNow();
+        publishQuietly();
+        LOG.info("👀 Directory watch stopped");
+    }
+
+    /** Current running totals for one user, or null if none. */
+    public OutputData get(String userId) {
+        return totals.get(userId);
+    }
+
+    private void watch(Path inbox) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        try (WatchService watcher = inbox.getFileSystem().newWatchService()) {
+            inbox.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            // Files dropped while the service was down
+            scan(inbox, matcher);
+            while (running) {
+                WatchKey key = watcher.poll(settleMs, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan(inbox, matcher);
+                        } else if (matcher.matches((Path) event.context())) {
+                            pending.putIfAbsent(inbox.resolve((Path) event.context()), null);
+                        }
+                    }
+                    if (!key.reset()) {
+                        LOG.errorf("❌ %s is no longer accessible, directory watch stopped", inbox);
+                        return;
+                    }
+                }
+                ingestSettled();
+                if (System.currentTimeMillis() - persistedAt >= snapshotIntervalMs) {
+                    persistQuietly();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.errorf("❌ Directory watch on %s failed: %s", inbox, e.getMessage());
+        } finally {
+            // stop() interrupts this thread, and an interrupt would close the state file's channel
+            boolean interrupted = Thread.interrupted();
+            persistQuietly();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void scan(Path inbox, PathMatcher matcher) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                if (matcher.matches(file.getFileName())) {
+                    pending.putIfAbsent(file, null);
+                }
+            }
+        }
+    }
+
+    // Ingests, oldest first, the pending files whose size and mtime stayed the same for settleMs
+    private void ingestSettled() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        List<Path> ready = new ArrayList<>();
+        for (var it = pending.entrySet().iterator(); it.hasNext(); ) {
+            var entry = it.next();
+            Path file = entry.getKey();
+            if (ledger.containsKey(file.getFileName().toString())) {
+                it.remove();
+                continue;
+            }
+            try {
+                long size = Files.size(file);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                Seen seen = entry.getValue();
+                if (seen == null || seen.size() != size || seen.modified() != modified) {
+                    entry.setValue(new Seen(size, modified, now));
+                } else if (now - seen.since() >= settleMs) {
+                    ready.add(file);
+                }
+            } catch (IOException e) {
+                // Deleted or renamed before it settled
+                it.remove();
+            }
+        }
+        ready.sort(Comparator.comparingLong(f -> pending.get(f).modified()));
+        for (Path file : ready) {
+            if (!running) {
+                return;
+            }
+            pending.remove(file);
+            ingest(file);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void ingest(Path file) {
+        String name = file.getFileName().toString();
+        var progress = new PipelineProgress(JOB);
+        var fileTotals = new AggregationService();
+        long start = System.currentTimeMillis();
+        LOG.infof("📥 Ingesting %s", file);
+        try {
+            processor.aggregate(file, fileTotals, progress);
+        } catch (Exception e) {
+            if (!running) {
+                // Interrupted by shutdown: not in the ledger, so the next start ingests it again
+                LOG.infof("⏹️ Ingestion of %s interrupted by shutdown", name);
+                return;
+            }
+            // Recorded so that a broken file is not retried forever; drop a fixed copy under a new name
+            LOG.errorf("❌ Could not ingest %s, skipping it: %s", file, e.getMessage());
+            registry.counter("watch.files", "result", "failed").increment();
+            ledger.put(name, -1L);
+            stateDirty = true;
+            return;
+        }
+        int attempt = progress.failed() > 0 ? attempts.merge(name, 1, Integer::sum) : 0;
+        if (progress.failed() > 0 && attempt < maxAttempts) {
+            // Merging would keep the file short of its failed rows for good, and the ledger would
+            // stop it from ever being ingested again; drop this attempt and retry the whole file
+            long delay = retryMs << Math.min(attempt - 1, 5);
+            registry.counter("watch.files", "result", "retried").increment();
+            LOG.warnf("⚠️ %d of %d rows of %s failed, retrying the file in %d ms (attempt %d)",
+                    progress.failed(), progress.read(), name, delay, attempt);
+            // Counts as settled once settleMs has passed after the delay, unless the file changes
+            try {
+                pending.put(file, new Seen(Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+                        System.currentTimeMillis() + delay));
+            } catch (IOException e) {
+                // Deleted or renamed meanwhile; a new copy is picked up like any other file
+            }
+            return;
+        }
+        attempts.remove(name);
+        synchronized (totalsLock) {
+            fileTotals.forEachTotal(totals::restore);
+            version.incrementAndGet();
+        }
+        ledger.put(name, progress.read());
+        stateDirty = true;
+        if (progress.failed() > 0) {
+            // Rows that kept failing are given up on, the rest of the file is not
+            LOG.warnf("⚠️ %d of %d rows of %s still failed after %d attempts, ingesting the file without them",
+                    progress.failed(), progress.read(), name, attempt);
+            registry.counter("watch.files", "result", "partial").increment();
+            registry.counter("watch.rows.failed").increment(progress.failed());
+        } else {
+            registry.counter("watch.files", "result", "ingested").increment();
+        }
+        registry.counter("watch.rows").increment(progress.read() - progress.failed());
+        LOG.infof("✅ Ingested %s: %d rows, %d failed, in %d ms (%d files so far)",
+                name, progress.read(), progress.failed(), System.currentTimeMillis() - start, ledger.size());
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Could not publish the aggregate snapshot: %s", e.getMessage());
+        }
+    }
+
+    /** Writes the running totals to {@code watch.output} if they changed since the last snapshot. */
+    synchronized void publish() throws IOException {
+        long current;
+        List<OutputData> snapshot;
+        synchronized (totalsLock) {
+            current = version.get();
+            if (current == publishedVersion) {
+                return;
+            }
+            snapshot = (List<OutputData>) totals.snapshot();
+        }
+        Path out = Path.of(output).toAbsolutePath();
+        Files.createDirectories(out.getParent());
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        new ResultWriter(1, ResultWriter.parseSort(outputSort), 1 << 20).write(snapshot, tmp);
+        // Readers see the previous snapshot or this one, never a partial file
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        publishedVersion = current;
+        LOG.infof("📸 Aggregate snapshot with %d users written to %s", snapshot.size(), out);
+    }
+
+    // Watch thread only, like the ledger it writes
+    private void persistQuietly() {
+        if (!stateDirty) {
+            return;
+        }
+        try {
+            persist();
+            stateDirty = false;
+            persistedAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Could not write watch state %s: %s", state, e.getMessage());
+        }
+    }
+
+    private record Total(String userId, long count, double sum) {}
+
+    // Ledger and totals in one file, replaced atomically, so they always agree
+    private void persist() throws IOException {
+        List<Total> users = new ArrayList<>();
+        totals.forEachTotal((userId, count, sum) -> users.add(new Total(userId, count, sum)));
+        Path file = Path.of(state).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var fos = new FileOutputStream(tmp.toFile());
+             var out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(ledger.size());
+            for (var entry : ledger.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.writeInt(users.size());
+            for (Total t : users) {
+                out.writeUTF(t.userId());
+                out.writeLong(t.count());
+                out.writeDouble(t.sum());
+            }
+            out.flush();
+            fos.getChannel().force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void restore() throws IOException {
+        Path file = Path.of(state);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a watch state file: " + file.toAbsolutePath());
+            }
+            int files = in.readInt();
+            for (int i = 0; i < files; i++) {
+                ledger.put(in.readUTF(), in.readLong());
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                totals.restore(in.readUTF(), in.readLong(), in.readDouble());
+            }
+        }
+        version.incrementAndGet();
+        LOG.infof("♻️ Restored watch state: %d files ingested, %d users", ledger.size(),
+                ((List<OutputData>) totals.snapshot()).size());
+    }
+}
@@ -0,0 +1,160 @@
+package org.ravenpack.service;
+
+import io.smallrye.mutiny.CompositeException;
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of a call that is slower than a percentile of recent latencies and keeps
+ * whichever copy answers first; the other one is cancelled.
+ * <p>
+ * The hedge delay is recomputed from a window of recent primary latencies and hedging only starts
+ * once {@code minSamples} are known. Extra traffic is capped by a token bucket: every call earns
+ * {@code budget} tokens and every hedge spends one, so over time hedges stay below that share of
+ * calls (e.g. 0.05 for 5%), with a small burst allowance. A failure of one copy is ignored while
+ * the other is still pending. A primary that fails before the hedge delay is hedged right away if
+ * the budget allows, and otherwise its failure is reported without waiting for the delay.
+ */
+public class Hedger {
+
+    // Recompute the percentile after this many new samples rather than on every call
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_TOKENS = 10;
+
+    // Shared marker for a hedge that was not sent; no stack trace and no suppressed exceptions
+    private static final RuntimeException NOT_SENT = new RuntimeException("Hedge not sent", null, false, false) {
+    };
+
+    private final String name;
+    private final double percentile;
+    private final double budget;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final long[] window;
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong wins = new AtomicLong();
+
+    // Guarded by this
+    private int next;
+    private int samples;
+    private int sinceRecompute;
+    private double tokens;
+
+    private volatile long delayNanos = -1;
+
+    public Hedger(String name, double percentile, double budget, long minDelayMillis, int windowSize, int minSamples) {
+        this.name = name;
+        this.percentile = Math.min(0.999, Math.max(0.5, percentile));
+        this.budget = Math.max(0, budget);
+        this.minDelayNanos = Math.max(1, minDelayMillis) * 1_000_000L;
+        this.window = new long[Math.max(16, windowSize)];
+        this.minSamples = Math.min(window.length, Math.max(1, minSamples));
+    }
+
+    /**
+     * Subscribes to {@code call} and, if it has not answered after the current hedge delay, or
+     * failed before that, and the budget allows, subscribes to it a second time. Emits the first
+     * item of either.
+     */
+    public <T> Uni<T> call(Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(() -> {
+            earn();
+            long delay = delayNanos;
+            long start = System.nanoTime();
+            AtomicBoolean settled = new AtomicBoolean();
+            var primaryFailed = new CompletableFuture<Void>();
+            // Cancelled primaries are recorded too, with the time they had taken so far
+            Uni<T> primary = Uni.createFrom().deferred(call)
+                    .invoke(() -> settled.set(true))
+                    .onFailure().invoke(() -> primaryFailed.complete(null))
+                    .onTermination().invoke(() -> record(System.nanoTime() - start));
+            if (delay < 0) {
+                return primary;
+            }
+            Uni<Void> timer = Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofNanos(delay));
+            // A failed primary triggers the hedge at once: the join below only fails once both copies
+            // have, so it would otherwise wait out the delay just to report the failure
+            Uni<T> hedge = Uni.join().first(timer, Uni.createFrom().completionStage(primaryFailed)).toTerminate()
+                    .onItem().transformToUni(ignored -> {
+                        if (settled.get() || !spend()) {
+                            return Uni.createFrom().<T>failure(NOT_SENT);
+                        }
+                        hedges.incrementAndGet();
+                        return Uni.createFrom().deferred(call)
+                                .invoke(() -> {
+                                    if (settled.compareAndSet(false, true)) {
+                                        wins.incrementAndGet();
+                                    }
+                                });
+                    });
+            return Uni.join().first(primary, hedge).withItem()
+                    .onFailure(CompositeException.class).transform(Hedger::primaryCause);
+        });
+    }
+
+    // When both copies failed, or the hedge was never sent, report what actually went wrong
+    private static Throwable primaryCause(Throwable failure) {
+        for (Throwable cause : ((CompositeException) failure).getCauses()) {
+            if (cause != NOT_SENT) {
+                return cause;
+            }
+        }
+        return failure;
+    }
+
+    private synchronized void earn() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    private synchronized boolean spend() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void record(long nanos) {
+        long[] copy = null;
+        synchronized (this) {
+            window[next] = nanos;
+            next = (next + 1) % window.length;
+            samples = Math.min(samples + 1, window.length);
+            if (samples >= minSamples && (++sinceRecompute >= RECOMPUTE_EVERY || delayNanos < 0)) {
+                sinceRecompute = 0;
+                copy = Arrays.copyOf(window, samples);
+            }
+        }
+        if (copy != null) {
+            Arrays.sort(copy);
+            long p = copy[Math.min(copy.length - 1, (int) Math.ceil(percentile * copy.length) - 1)];
+            delayNanos = Math.max(minDelayNanos, p);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Current hedge delay in milliseconds, or -1 while there are too few samples. */
+    public double delayMillis() {
+        long delay = delayNanos;
+        return delay < 0 ? -1 : delay / 1e6;
+    }
+
+    /** Hedges sent so far. */
+    public long hedges() {
+        return hedges.get();
+    }
+
+    /** Hedges that answered before their primary. */
+    public long wins() {
+        return wins.get();
+    }
+}
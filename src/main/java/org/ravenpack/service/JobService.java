@@ -0,0 +1,303 @@
+package org.ravenpack.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ravenpack.model.JobStatus;
+import org.ravenpack.model.JobStatus.State;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.utils.CsvProcessor;
+import org.ravenpack.utils.PipelineMetrics;
+import org.ravenpack.utils.PipelineProgress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CSV files through the pipeline in the background. Jobs wait in a bounded queue for one of
+ * {@code jobs.workers} threads; once the queue holds {@code jobs.queueLimit} jobs, new submissions
+ * are rejected instead of piling up. Finished jobs, their metrics and their result files are
+ * deleted after {@code jobs.retention}, checked on a timer so that they go even when no new jobs
+ * arrive.
+ * <p>
+ * A failed job keeps its input, and with {@code checkpoint.enabled} its checkpoint, keyed by the
+ * job id, until it is evicted; {@link #resume(String)} runs it again from where it stopped.
+ */
+@ApplicationScoped
+public class JobService {
+
+    private static final Logger LOG = Logger.getLogger(JobService.class);
+
+    @Inject
+    CsvProcessor processor;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "jobs.workers", defaultValue = "2")
+    int workers;
+
+    @ConfigProperty(name = "jobs.queueLimit", defaultValue = "8")
+    int queueLimit;
+
+    @ConfigProperty(name = "jobs.retention", defaultValue = "3600")
+    long retentionSeconds;
+
+    @ConfigProperty(name = "jobs.top.enabled", defaultValue = "false")
+    boolean topEnabled;
+
+    @ConfigProperty(name = "jobs.top.minMessages", defaultValue = "5")
+    int topMinMessages;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService evictor;
+
+    private static final class Job {
+        final String id;
+        final Path input;
+        final Path output;
+        // 0 with jobs.top.enabled off
+        final int topMinMessages;
+        // Replaced when the job is resumed, the ranking too: the rerun restores what was committed
+        volatile PipelineProgress progress;
+        volatile State state = State.QUEUED;
+        volatile List<Path> files = List.of();
+        volatile String error;
+        volatile long finishedAt;
+
+        Job(String id, Path input, Path output, int topMinMessages) {
+            this.id = id;
+            this.input = input;
+            this.output = output;
+            this.topMinMessages = topMinMessages;
+            this.progress = newProgress();
+        }
+
+        PipelineProgress newProgress() {
+            var progress = new PipelineProgress(id);
+            if (topMinMessages > 0) {
+                progress.trackTopScores(new TopScores(topMinMessages));
+            }
+            return progress;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        var threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)),
+                r -> {
+                    var t = new Thread(r, "csv-job-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "csv-job-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        // Often enough that a job is not kept much longer than its retention
+        long period = Math.max(1, Math.min(retentionSeconds, 60));
+        evictor.scheduleAtFixedRate(() -> {
+            // An exception would cancel every later run
+            try {
+                evictExpired();
+            } catch (RuntimeException e) {
+                LOG.warnf("⚠️ Could not evict finished jobs: %s", e.getMessage());
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues {@code input} for processing; the job owns the file and deletes it once the job
+     * succeeded or is evicted.
+     * Results go to {@code outputDir/processed-<timestamp>-<id>.csv}, and are deleted when the job
+     * is evicted.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public JobStatus submit(Path input, Path outputDir) {
+        evictExpired();
+        String id = UUID.randomUUID().toString();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        var job = new Job(id, input, outputDir.resolve("processed-" + timestamp + "-" + id.substring(0, 8) + ".csv"),
+                topEnabled ? Math.max(1, topMinMessages) : 0);
+        jobs.put(id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            LOG.warnf("🚦 Job queue full (%d queued), rejecting job", executor.getQueue().size());
+            throw e;
+        }
+        LOG.infof("📥 Job %s queued (%d waiting, %d running)", id, executor.getQueue().size(), executor.getActiveCount());
+        return status(job);
+    }
+
+    /**
+     * Queues a failed job again over its kept input. With {@code checkpoint.enabled} the rerun
+     * skips the rows its checkpoint committed. Empty for unknown jobs.
+     *
+     * @throws IllegalStateException if the job did not fail
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Optional<JobStatus> resume(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        synchronized (job) {
+            if (job.state != State.FAILED || !Files.exists(job.input)) {
+                throw new IllegalStateException(
+                        "Job " + id + " is " + job.state + ", only failed jobs with their input can be resumed");
+            }
+            var previous = job.progress;
+            job.progress = job.newProgress();
+            job.state = State.QUEUED;
+            job.error = null;
+            // Not finished any more, so not evicted while it waits
+            job.finishedAt = 0;
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                job.progress = previous;
+                job.state = State.FAILED;
+                job.finishedAt = System.currentTimeMillis();
+                LOG.warnf("🚦 Job queue full (%d queued), not resuming job %s", executor.getQueue().size(), id);
+                throw e;
+            }
+        }
+        LOG.infof("🔁 Job %s queued again (%d waiting, %d running)",
+                id, executor.getQueue().size(), executor.getActiveCount());
+        return Optional.of(status(job));
+    }
+
+    public Optional<JobStatus> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(JobService::status);
+    }
+
+    /**
+     * Result files of a job that succeeded; empty for unknown or unfinished jobs.
+     */
+    public Optional<List<Path>> resultFiles(String id) {
+        Job job = jobs.get(id);
+        return job == null || job.state != State.SUCCEEDED ? Optional.empty() : Optional.of(job.files);
+    }
+
+    /**
+     * The {@code k} users of a job with the highest average score so far, among those with at
+     * least {@code jobs.top.minMessages} messages. Available from submission until the job is
+     * evicted; empty for unknown jobs or with {@code jobs.top.enabled=false}.
+     */
+    public Optional<List<OutputData>> top(String id, int k) {
+        Job job = jobs.get(id);
+        TopScores top = job == null ? null : job.progress.topScores();
+        return top == null ? Optional.empty() : Optional.of(top.top(k));
+    }
+
+    /**
+     * Emits the job's status right away and then every {@code interval}, completing after the
+     * first status that shows the job finished. Empty for unknown jobs.
+     */
+    public Optional<Multi<JobStatus>> watch(String id, Duration interval) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        var finishedSent = new AtomicBoolean();
+        Multi<Long> ticks = Multi.createBy().concatenating()
+                .streams(Multi.createFrom().item(0L), Multi.createFrom().ticks().every(interval));
+        return Optional.of(ticks
+                .onItem().transform(tick -> status(job))
+                // Take statuses up to and including the first finished one
+                .select().first(s -> !finishedSent.getAndSet(s.finished())));
+    }
+
+    private void run(Job job) {
+        job.state = State.RUNNING;
+        LOG.infof("🏃 Job %s started", job.id);
+        try {
+            // Keyed by job id: the input is a temp file whose name means nothing to a rerun
+            job.files = processor.process(job.input.toString(), job.output.toString(), job.progress, job.id);
+            deleteQuietly(job.input);
+            job.finishedAt = System.currentTimeMillis();
+            job.state = State.SUCCEEDED;
+            LOG.infof("✅ Job %s finished in %.1f s", job.id, job.progress.elapsedSeconds());
+        } catch (Exception e) {
+            job.progress.finish();
+            // Together with the state, so that a resume never sees FAILED with the old finish time
+            synchronized (job) {
+                job.error = e.getMessage();
+                job.finishedAt = System.currentTimeMillis();
+                job.state = State.FAILED;
+            }
+            LOG.errorf("❌ Job %s failed, its input is kept so it can be resumed: %s", job.id, e.getMessage());
+        }
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(retentionSeconds);
+        jobs.values().removeIf(j -> {
+            synchronized (j) {
+                boolean expired = j.finishedAt != 0 && j.finishedAt < cutoff;
+                if (expired) {
+                    PipelineMetrics.remove(registry, j.id);
+                    // Results nobody can download any more, with what a failed job kept for a resume
+                    // that can no longer come
+                    j.files.forEach(JobService::deleteQuietly);
+                    deleteQuietly(j.output);
+                    deleteQuietly(j.input);
+                    try {
+                        processor.deleteCheckpoint(j.id);
+                    } catch (IOException e) {
+                        LOG.warnf("⚠️ Could not delete the checkpoint of job %s: %s", j.id, e.getMessage());
+                    }
+                }
+                return expired;
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Could not delete %s: %s", file, e.getMessage());
+        }
+    }
+
+    private static JobStatus status(Job job) {
+        return job.progress.status(job.id, job.state, job.error);
+    }
+}
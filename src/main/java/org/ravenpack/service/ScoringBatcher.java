@@ -0,0 +1,113 @@
+package org.ravenpack.service;
+
+import io.smallrye.mutiny.Uni;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent scoring requests into batch calls. A batch is sent as soon as it holds
+ * {@code maxSize} texts, or once the first text in it has waited for {@code linger}.
+ * Every caller still gets its own {@link Uni} completed with the score for its text.
+ */
+public class ScoringBatcher implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ScoringBatcher.class);
+
+    private record Pending(String text, CompletableFuture<Double> result) {}
+
+    private final Function<List<String>, Uni<List<Double>>> batchCall;
+    private final int maxSize;
+    private final long lingerMillis;
+    private final ScheduledExecutorService timer;
+
+    private List<Pending> pending;
+    private ScheduledFuture<?> lingerTask;
+
+    public ScoringBatcher(Function<List<String>, Uni<List<Double>>> batchCall, int maxSize, Duration linger) {
+        this.batchCall = batchCall;
+        this.maxSize = Math.max(1, maxSize);
+        this.lingerMillis = Math.max(0, linger.toMillis());
+        this.pending = new ArrayList<>(this.maxSize);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scoring-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Uni<Double> submit(String text) {
+        return Uni.createFrom().completionStage(() -> enqueue(text));
+    }
+
+    private CompletableFuture<Double> enqueue(String text) {
+        var future = new CompletableFuture<Double>();
+        List<Pending> ready = null;
+        synchronized (this) {
+            pending.add(new Pending(text, future));
+            if (pending.size() >= maxSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                lingerTask = timer.schedule(this::flushLingering, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+        return future;
+    }
+
+    private void flushLingering() {
+        List<Pending> ready;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = drain();
+        }
+        send(ready);
+    }
+
+    // Must be called while holding the lock
+    private List<Pending> drain() {
+        var batch = pending;
+        pending = new ArrayList<>(maxSize);
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        List<String> texts = batch.stream().map(Pending::text).toList();
+        LOG.debugf("📦 Sending scoring batch of %d texts", texts.size());
+        Uni.createFrom().deferred(() -> batchCall.apply(texts)).subscribe().with(
+                scores -> {
+                    if (scores == null || scores.size() != batch.size()) {
+                        var error = new IllegalStateException("Scoring batch returned "
+                                + (scores == null ? 0 : scores.size()) + " scores for " + batch.size() + " texts");
+                        batch.forEach(p -> p.result().completeExceptionally(error));
+                        return;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).result().complete(scores.get(i));
+                    }
+                },
+                failure -> batch.forEach(p -> p.result().completeExceptionally(failure)));
+    }
+
+    @Override
+    public void close() {
+        flushLingering();
+        timer.shutdownNow();
+    }
+}
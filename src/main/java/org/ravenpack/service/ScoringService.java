@@ -1,9 +1,12 @@
 package org.ravenpack.service;
 
 import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
@@ -11,29 +14,81 @@ import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.logging.Logger;
 import org.ravenpack.api.ScoringClient;
 import org.ravenpack.config.CacheProvider;
+import org.ravenpack.config.DiskCacheTier;
+import org.ravenpack.config.HedgingProvider;
+import org.ravenpack.utils.CacheKey;
 import org.ravenpack.utils.MessageNormalizer;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 @ApplicationScoped
 public class ScoringService {
 
     private static final Logger LOG = Logger.getLogger(ScoringService.class);
 
+    public static final String CIRCUIT_BREAKER = "scoring";
+
     @Inject @RestClient
     ScoringClient client;
 
-    AsyncCache<String, Uni<Double>> cache;
+    @ConfigProperty(name = "scoring.batch.enabled", defaultValue = "false")
+    boolean batchEnabled;
+
+    @ConfigProperty(name = "scoring.batch.maxSize", defaultValue = "64")
+    int batchMaxSize;
+
+    @ConfigProperty(name = "scoring.batch.lingerMs", defaultValue = "5")
+    long batchLingerMs;
+
+    AsyncCache<CacheKey, Uni<Double>> cache;
+
+    DiskCacheTier disk;
+
+    Hedger hedger;
+
+    ScoringBatcher batcher;
 
     @Inject
     void init(CacheProvider provider) {
         this.cache = provider.scoringCache();
+        this.disk = provider.scoringDiskTier().orElse(null);
+        if (batchEnabled) {
+            this.batcher = new ScoringBatcher(client::scoreBatch,
+                    batchMaxSize, Duration.ofMillis(batchLingerMs));
+            LOG.infof("📦 Scoring batches enabled: up to %d texts, %d ms linger", batchMaxSize, batchLingerMs);
+        }
+    }
+
+    @Inject
+    void initHedging(HedgingProvider hedging) {
+        this.hedger = hedging.scoringHedger().orElse(null);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    /**
+     * Whether scoring {@code text} would call the scoring service, i.e. it is in neither cache
+     * tier. Callers use it to only limit calls that go out. Looks through {@code asMap()}, which
+     * does not count towards the cache hit and miss stats.
+     */
+    public boolean callsRemote(String text) {
+        CacheKey key = MessageNormalizer.key('s', MessageNormalizer.normalize(text));
+        return !cache.asMap().containsKey(key) && (disk == null || !disk.contains(key));
     }
 
     @Timeout(500)
     @Retry(maxRetries = 2, delay = 50)
     @CircuitBreaker(delay = 5000)
+    @CircuitBreakerName(CIRCUIT_BREAKER)
     public Uni<Double> score(String text) {
         String norm = MessageNormalizer.normalize(text);
-        String key = MessageNormalizer.hash("s|" + norm);
+        CacheKey key = MessageNormalizer.key('s', norm);
         
         // Check if already cached
         boolean isCached = cache.getIfPresent(key) != null;
@@ -45,12 +100,37 @@ public class ScoringService {
         
         return Uni.createFrom().completionStage(
                 cache.get(key, (k, exec) ->
-                        java.util.concurrent.CompletableFuture.completedFuture(
-                                client.score(norm)
-                                    .invoke(result -> LOG.debugf("🎯 Scoring API response: '%s' -> %.6f", norm, result))
-                                    .memoize().indefinitely()
-                        )
+                        java.util.concurrent.CompletableFuture.completedFuture(load(key, norm))
                 )
         ).flatMap(u -> u);
     }
+
+    // Read-through from the disk tier, write-behind to it after a successful remote call
+    private Uni<Double> load(CacheKey key, String norm) {
+        if (disk != null) {
+            String stored = disk.get(key);
+            if (stored != null) {
+                LOG.debugf("💽 Disk cache HIT for scoring: '%s'", norm);
+                return Uni.createFrom().item(Double.valueOf(stored));
+            }
+        }
+        return fetch(norm)
+                .invoke(result -> {
+                    LOG.debugf("🎯 Scoring API response: '%s' -> %.6f", norm, result);
+                    if (disk != null && result != null) {
+                        disk.put(key, result.toString());
+                    }
+                })
+                .memoize().indefinitely();
+    }
+
+    // Cache misses are coalesced into batch calls when batching is enabled; batches are not hedged,
+    // their latency depends on their size and would skew the single-call percentile
+    private Uni<Double> fetch(String norm) {
+        return batcher != null ? batcher.submit(norm) : hedged(() -> client.score(norm));
+    }
+
+    private <T> Uni<T> hedged(Supplier<Uni<T>> call) {
+        return hedger != null ? hedger.call(call) : call.get();
+    }
 }
@@ -0,0 +1,223 @@
+package org.ravenpack.service;
+
+import org.ravenpack.model.OutputData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Per-user message count and score sum over a time window rather than all time.
+ * <p>
+ * Each user has a ring of {@code buckets} time buckets, so memory per user is fixed whatever the
+ * row rate. A {@link Mode#SLIDING sliding} window of size W uses buckets W/buckets wide and covers
+ * the last W, moving one bucket at a time; a {@link Mode#TUMBLING tumbling} window uses a single
+ * bucket W wide, aligned to multiples of W since the epoch, and covers the window that contains
+ * the reference time. The reference time is the latest row time seen, so results describe the end
+ * of the input rather than the wall clock.
+ * <p>
+ * Buckets expire in place: a row whose bucket maps to a slot still holding an older bucket resets
+ * that slot, and reads ignore slots outside the window. Users without a bucket in the window are
+ * dropped when a snapshot is taken. Every ring has its own lock, so there is no global lock; adds
+ * only contend with adds for the same user.
+ */
+public class TimeWindows {
+
+    public enum Mode {
+        TUMBLING,
+        SLIDING
+    }
+
+    /**
+     * The buckets of one user. A ring removed from the map is marked retired, so an add that
+     * looked it up just before the removal retries with a fresh ring instead of being lost.
+     */
+    private static final class Ring {
+        final long[] epochs;
+        final long[] counts;
+        final double[] sums;
+        long newest = Long.MIN_VALUE;
+        boolean retired;
+
+        Ring(int buckets) {
+            epochs = new long[buckets];
+            counts = new long[buckets];
+            sums = new double[buckets];
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+    }
+
+    private final Mode mode;
+    private final long bucketMillis;
+    private final int buckets;
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+    // Striped, so the max of row times does not become a contention point of its own
+    private final LongAccumulator latest = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public TimeWindows(Mode mode, Duration size, int buckets) {
+        if (size.toMillis() <= 0) {
+            throw new IllegalArgumentException("Window size must be at least 1ms, was " + size);
+        }
+        this.mode = mode;
+        if (mode == Mode.TUMBLING) {
+            this.buckets = 1;
+            this.bucketMillis = size.toMillis();
+        } else {
+            if (buckets < 1 || size.toMillis() % buckets != 0) {
+                throw new IllegalArgumentException("A sliding window of " + size + " cannot be split into "
+                        + buckets + " buckets");
+            }
+            this.buckets = buckets;
+            this.bucketMillis = size.toMillis() / buckets;
+        }
+    }
+
+    /**
+     * Parses {@code none}, {@code tumbling} or {@code sliding}; null for none or when unset.
+     */
+    public static Mode parseMode(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "none" -> null;
+            case "tumbling" -> Mode.TUMBLING;
+            case "sliding" -> Mode.SLIDING;
+            default -> throw new IllegalArgumentException(
+                    "Unknown window.mode value '" + value + "', expected none, tumbling or sliding");
+        };
+    }
+
+    /**
+     * Parses a row time: ISO-8601 with offset ({@code 2024-05-01T10:15:30Z}), local date-time
+     * taken as UTC ({@code 2024-05-01T10:15:30} or with a space), or epoch seconds or
+     * milliseconds (numbers above 10^11 are milliseconds). Null if blank or not a time.
+     */
+    public static Instant parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String s = value.trim();
+        try {
+            if (s.chars().allMatch(Character::isDigit)) {
+                long n = Long.parseLong(s);
+                return n >= 100_000_000_000L ? Instant.ofEpochMilli(n) : Instant.ofEpochSecond(n);
+            }
+            s = s.replace(' ', 'T');
+            if (s.endsWith("Z") || s.lastIndexOf('+') > 0 || s.lastIndexOf('-') > s.indexOf('T')) {
+                return OffsetDateTime.parse(s).toInstant();
+            }
+            return LocalDateTime.parse(s).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Records {@code count} messages from the same user, all scored {@code score}, at
+     * {@code timeMillis}. Rows older than every bucket the user still holds are ignored.
+     */
+    public void add(String userId, double score, int count, long timeMillis) {
+        long epoch = Math.floorDiv(timeMillis, bucketMillis);
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        latest.accumulate(timeMillis);
+        while (true) {
+            Ring ring = rings.get(userId);
+            if (ring == null) {
+                ring = rings.computeIfAbsent(userId, k -> new Ring(buckets));
+            }
+            synchronized (ring) {
+                if (ring.retired) {
+                    continue;
+                }
+                long held = ring.epochs[slot];
+                if (held > epoch) {
+                    // The slot already moved on to a later bucket: this row is outside the window
+                    return;
+                }
+                if (held < epoch) {
+                    ring.epochs[slot] = epoch;
+                    ring.counts[slot] = 0;
+                    ring.sums[slot] = 0;
+                }
+                ring.counts[slot] += count;
+                ring.sums[slot] += score * count;
+                ring.newest = Math.max(ring.newest, epoch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Totals of one user in the window ending at the latest row time, or null if none.
+     */
+    public OutputData get(String userId) {
+        Ring ring = rings.get(userId);
+        return ring == null ? null : totals(userId, ring, referenceEpoch());
+    }
+
+    /**
+     * Totals of every user with messages in the window ending at the latest row time. Users
+     * without any are evicted.
+     */
+    public List<OutputData> snapshot() {
+        long reference = referenceEpoch();
+        List<OutputData> results = new ArrayList<>(rings.size());
+        rings.forEach((userId, ring) -> {
+            OutputData totals = totals(userId, ring, reference);
+            if (totals != null) {
+                results.add(totals);
+            } else {
+                evictIfExpired(userId, ring, reference);
+            }
+        });
+        return results;
+    }
+
+    /** Number of users currently holding buckets, expired or not. */
+    public int users() {
+        return rings.size();
+    }
+
+    private long referenceEpoch() {
+        long time = latest.get();
+        return time == Long.MIN_VALUE ? Long.MIN_VALUE : Math.floorDiv(time, bucketMillis);
+    }
+
+    private OutputData totals(String userId, Ring ring, long reference) {
+        long count = 0;
+        double sum = 0;
+        synchronized (ring) {
+            for (int i = 0; i < buckets; i++) {
+                long epoch = ring.epochs[i];
+                if (epoch <= reference && epoch > reference - buckets) {
+                    count += ring.counts[i];
+                    sum += ring.sums[i];
+                }
+            }
+        }
+        return count > 0 ? new OutputData(userId, (int) count, sum / count) : null;
+    }
+
+    private void evictIfExpired(String userId, Ring ring, long reference) {
+        synchronized (ring) {
+            if (ring.newest <= reference - buckets && !ring.retired) {
+                ring.retired = true;
+                rings.remove(userId, ring);
+            }
+        }
+    }
+}
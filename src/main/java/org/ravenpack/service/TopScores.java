@@ -0,0 +1,88 @@
+package org.ravenpack.service;
+
+import org.ravenpack.model.OutputData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Users ranked by average score, highest first, kept up to date as scores arrive so the top of
+ * the ranking can be read at any time without copying every user.
+ * <p>
+ * Only users with at least {@code minMessages} messages are ranked. Every add moves the user to
+ * their new place in a skip list, which costs O(log n) in the number of ranked users; reading the
+ * top k walks the head of the list and costs O(k) whatever the number of users. Adds for the same
+ * user are serialized on that user's entry, adds for different users do not block each other.
+ */
+public class TopScores {
+
+    /** A user's place in the ranking; replaced, never mutated, when their totals change. */
+    private record Ranked(String userId, long count, double avg) {}
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::avg).reversed()
+            .thenComparing(Ranked::userId);
+
+    private static final class Entry {
+        long count;
+        double sum;
+        Ranked ranked;
+    }
+
+    private final int minMessages;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    public TopScores(int minMessages) {
+        this.minMessages = Math.max(1, minMessages);
+    }
+
+    public int minMessages() {
+        return minMessages;
+    }
+
+    /**
+     * Adds {@code count} messages whose scores sum to {@code sum} to the totals of a user.
+     */
+    public void add(String userId, long count, double sum) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(userId, k -> new Entry());
+        }
+        synchronized (entry) {
+            entry.count += count;
+            entry.sum += sum;
+            if (entry.ranked != null) {
+                ranking.remove(entry.ranked);
+            }
+            entry.ranked = entry.count >= minMessages
+                    ? new Ranked(userId, entry.count, entry.sum / entry.count)
+                    : null;
+            if (entry.ranked != null) {
+                ranking.add(entry.ranked);
+            }
+        }
+    }
+
+    /**
+     * The {@code k} users with the highest average score, highest first.
+     */
+    public List<OutputData> top(int k) {
+        List<OutputData> results = new ArrayList<>(Math.min(k, 1024));
+        // A user moving while we iterate can be passed twice, at their old and new place
+        Set<String> seen = new HashSet<>();
+        for (Ranked r : ranking) {
+            if (results.size() >= k) {
+                break;
+            }
+            if (seen.add(r.userId())) {
+                results.add(new OutputData(r.userId(), (int) r.count(), r.avg()));
+            }
+        }
+        return results;
+    }
+}
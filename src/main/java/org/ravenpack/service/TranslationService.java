@@ -1,39 +1,93 @@
 package org.ravenpack.service;
 
 import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.smallrye.faulttolerance.api.CircuitBreakerName;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.logging.Logger;
+import org.ravenpack.api.EmbeddedTranslationClient;
 import org.ravenpack.api.TranslationClient;
 import org.ravenpack.config.CacheProvider;
+import org.ravenpack.config.DiskCacheTier;
+import org.ravenpack.config.HedgingProvider;
+import org.ravenpack.utils.CacheKey;
 import org.ravenpack.utils.MessageNormalizer;
 
+import java.util.function.Supplier;
+
 @ApplicationScoped
 public class TranslationService {
 
     private static final Logger LOG = Logger.getLogger(TranslationService.class);
 
+    public static final String CIRCUIT_BREAKER = "translation";
+
     @Inject @RestClient
     TranslationClient client;
 
-    AsyncCache<String, Uni<String>> cache;
+    // rest: the remote service; embedded: in-process dictionary translation
+    @Inject
+    @ConfigProperty(name = "translation.client", defaultValue = "rest")
+    String clientType;
+
+    boolean remote = true;
+
+    AsyncCache<CacheKey, Uni<String>> cache;
+
+    DiskCacheTier disk;
+
+    Hedger hedger;
 
     @Inject
     void init(CacheProvider provider) {
         this.cache = provider.translationCache();
+        this.disk = provider.translationDiskTier().orElse(null);
+    }
+
+    @Inject
+    void initClient(EmbeddedTranslationClient embedded) {
+        switch (clientType) {
+            case "rest" -> { }
+            case "embedded" -> {
+                this.client = embedded;
+                this.remote = false;
+                LOG.info("📖 Translating in-process, no calls to the translation service");
+            }
+            default -> throw new IllegalArgumentException("Unknown translation.client: " + clientType);
+        }
+    }
+
+    @Inject
+    void initHedging(HedgingProvider hedging) {
+        this.hedger = hedging.translationHedger().orElse(null);
+    }
+
+    /**
+     * Whether translating {@code text} would call the translation service: it is in neither cache
+     * tier and translation does not run in process. Callers use it to only limit calls that go out.
+     * Looks through {@code asMap()}, which does not count towards the cache hit and miss stats.
+     */
+    public boolean callsRemote(String text) {
+        if (!remote) {
+            return false;
+        }
+        CacheKey key = MessageNormalizer.key('t', MessageNormalizer.normalize(text));
+        return !cache.asMap().containsKey(key) && (disk == null || !disk.contains(key));
     }
 
     @Timeout(500)
     @Retry(maxRetries = 2, delay = 50)
     @CircuitBreaker(requestVolumeThreshold = 20, failureRatio = 0.5, delay = 5000)
+    @CircuitBreakerName(CIRCUIT_BREAKER)
     public Uni<String> toEnglish(String text) {
         String norm = MessageNormalizer.normalize(text);
-        String key = MessageNormalizer.hash("t|" + norm);
+        CacheKey key = MessageNormalizer.key('t', norm);
         
         // Check if already cached
         boolean isCached = cache.getIfPresent(key) != null;
@@ -45,13 +99,32 @@ public class TranslationService {
         
         return Uni.createFrom().completionStage(
                 cache.get(key, (k, exec) ->
-                        java.util.concurrent.CompletableFuture.completedFuture(
-                                client.translate(norm)
-                                    .invoke(result -> LOG.debugf("🌍 Translation API response: '%s' -> '%s'", norm, result))
-                                    .memoize().indefinitely()
-                        )
+                        java.util.concurrent.CompletableFuture.completedFuture(load(key, norm))
                 )
         ).flatMap(u -> u);
     }
 
+    // Read-through from the disk tier, write-behind to it after a successful remote call
+    private Uni<String> load(CacheKey key, String norm) {
+        if (disk != null) {
+            String stored = disk.get(key);
+            if (stored != null) {
+                LOG.debugf("💽 Disk cache HIT for translation: '%s'", norm);
+                return Uni.createFrom().item(stored);
+            }
+        }
+        return hedged(() -> client.translate(norm))
+                .invoke(result -> {
+                    LOG.debugf("🌍 Translation API response: '%s' -> '%s'", norm, result);
+                    if (disk != null) {
+                        disk.put(key, result);
+                    }
+                })
+                .memoize().indefinitely();
+    }
+
+    // In-process calls are never slow enough to hedge
+    private <T> Uni<T> hedged(Supplier<Uni<T>> call) {
+        return hedger != null && remote ? hedger.call(call) : call.get();
+    }
 }
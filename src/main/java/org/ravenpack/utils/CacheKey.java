@@ -0,0 +1,7 @@
+package org.ravenpack.utils;
+
+/**
+ * 128-bit cache key for a normalized message, see {@link MessageNormalizer#key(char, String)}.
+ * Two longs take 32 bytes of heap per key instead of the 100+ bytes of a 64-char hex string.
+ */
+public record CacheKey(long hi, long lo) {}
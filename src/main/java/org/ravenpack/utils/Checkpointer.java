@@ -0,0 +1,249 @@
+package org.ravenpack.utils;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.jboss.logging.Logger;
+import org.ravenpack.service.AggregationService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Checkpoints a row-mode run so that it can resume after a crash.
+ * <p>
+ * Rows complete out of order, so the aggregation only receives a row's score once every row
+ * before it has completed too; rows that finish early wait in a concurrent pending map. One thread
+ * at a time commits, applying every consecutive row it finds there; a completion that finds the
+ * commit lock taken leaves its row to the thread holding it instead of waiting. The
+ * aggregation therefore always reflects exactly the first {@code committedRows} rows, and that
+ * state plus the row count is what gets written, at most every {@code intervalMillis}. A resumed
+ * run restores the totals and skips the committed rows, so the output matches an uninterrupted
+ * run. Failed rows are committed as failed and not retried on resume.
+ * <p>
+ * Checkpoints are written to a temp file and atomically renamed, on a worker thread so that
+ * completions (which arrive on I/O threads) never wait for disk.
+ */
+public class Checkpointer {
+
+    private static final Logger LOG = Logger.getLogger(Checkpointer.class);
+
+    private static final int MAGIC = 0x52504B31; // "RPK1"
+
+    private record Outcome(Map<String, Integer> senders, double score) {
+        static final Outcome FAILED = new Outcome(Map.of(), Double.NaN);
+    }
+
+    private record Total(String userId, long count, double sum) {}
+
+    private record Snapshot(long committedRows, long processed, long failed, List<Total> totals) {}
+
+    private final Path file;
+    private final String fingerprint;
+    private final long intervalMillis;
+    private final AggregationService agg;
+    private final Map<Long, Outcome> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    // Guarded by commitLock; committedRows is also read without it to find the next row to commit
+    private volatile long committedRows;
+    private long committedProcessed;
+    private long committedFailed;
+    private long lastWrite = System.currentTimeMillis();
+
+    public Checkpointer(Path file, String fingerprint, long intervalMillis, AggregationService agg) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.intervalMillis = intervalMillis;
+        this.agg = agg;
+    }
+
+    /**
+     * The checkpoint file of the run named {@code runKey} (a job id, or an input path) under
+     * {@code dir}, named after a hash of the key so that reruns of the same run find it.
+     */
+    public static Path fileFor(Path dir, String runKey) {
+        CacheKey key = MessageNormalizer.key('c', runKey);
+        return dir.resolve(String.format("%016x%016x.ckpt", key.hi(), key.lo()));
+    }
+
+    /**
+     * Identifies the input of a run by the run's key, the file's size and its modification time,
+     * so that a checkpoint is never applied to a file that changed since it was written.
+     */
+    public static String fingerprint(String runKey, Path input) throws IOException {
+        return runKey + "|" + Files.size(input) + "|" + Files.getLastModifiedTime(input).toMillis();
+    }
+
+    /**
+     * Loads the checkpoint if there is one for this input, restoring the totals into the
+     * aggregation and the counters into {@code progress}. Returns the number of rows to skip.
+     */
+    public long resume(PipelineProgress progress) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        commitLock.lock();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || !fingerprint.equals(in.readUTF())) {
+                LOG.warnf("⚠️ Checkpoint %s does not belong to this input, starting from scratch", file);
+                return 0;
+            }
+            long rows = in.readLong();
+            long processed = in.readLong();
+            long failed = in.readLong();
+            int users = in.readInt();
+            // Read everything before touching the aggregation, so a damaged file restores nothing
+            List<Total> totals = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                totals.add(new Total(in.readUTF(), in.readLong(), in.readDouble()));
+            }
+            totals.forEach(t -> agg.restore(t.userId(), t.count(), t.sum()));
+            committedRows = rows;
+            committedProcessed = processed;
+            committedFailed = failed;
+            progress.restore(processed, failed);
+            LOG.infof("♻️ Resuming from checkpoint: %d rows already committed (%d users)", rows, users);
+            return rows;
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Could not read checkpoint %s, starting from scratch: %s", file, e.getMessage());
+            return 0;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public void completed(long row, Map<String, Integer> senders, double score) {
+        record(row, new Outcome(senders, score));
+    }
+
+    public void failed(long row) {
+        record(row, Outcome.FAILED);
+    }
+
+    private void record(long row, Outcome outcome) {
+        pending.put(row, outcome);
+        // Checked again after every unlock: a row added while another thread held the lock, but
+        // after it last looked, is committed here rather than left behind
+        while (pending.containsKey(committedRows) && commitLock.tryLock()) {
+            Snapshot snapshot = null;
+            try {
+                Outcome next;
+                while ((next = pending.remove(committedRows)) != null) {
+                    apply(next);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastWrite >= intervalMillis && writing.compareAndSet(false, true)) {
+                    lastWrite = now;
+                    snapshot = snapshot();
+                }
+            } finally {
+                commitLock.unlock();
+            }
+            if (snapshot != null) {
+                Snapshot s = snapshot;
+                Infrastructure.getDefaultWorkerPool().execute(() -> {
+                    try {
+                        write(s);
+                    } finally {
+                        writing.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    // Guarded by commitLock
+    private void apply(Outcome outcome) {
+        if (outcome == Outcome.FAILED) {
+            committedFailed++;
+        } else {
+            outcome.senders().forEach((userId, count) -> agg.add(userId, outcome.score(), count));
+            committedProcessed++;
+        }
+        committedRows++;
+    }
+
+    // Guarded by commitLock: the aggregation only changes under the same lock, so the copy is consistent
+    private Snapshot snapshot() {
+        List<Total> totals = new ArrayList<>();
+        agg.forEachTotal((userId, count, sum) -> totals.add(new Total(userId, count, sum)));
+        return new Snapshot(committedRows, committedProcessed, committedFailed, totals);
+    }
+
+    private void write(Snapshot s) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (var fos = new FileOutputStream(tmp.toFile());
+                 var out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(fingerprint);
+                out.writeLong(s.committedRows());
+                out.writeLong(s.processed());
+                out.writeLong(s.failed());
+                out.writeInt(s.totals().size());
+                for (Total t : s.totals()) {
+                    out.writeUTF(t.userId());
+                    out.writeLong(t.count());
+                    out.writeDouble(t.sum());
+                }
+                out.flush();
+                fos.getChannel().force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.infof("💾 Checkpoint written: %d rows committed, %d users", s.committedRows(), s.totals().size());
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Checkpoint write failed: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the committed rows right away, e.g. when a run is aborted.
+     */
+    public void writeNow() {
+        while (!writing.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            Snapshot s;
+            commitLock.lock();
+            try {
+                lastWrite = System.currentTimeMillis();
+                s = snapshot();
+            } finally {
+                commitLock.unlock();
+            }
+            write(s);
+        } finally {
+            writing.set(false);
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the run's output is safely written.
+     */
+    public void delete() {
+        // Wait for an in-progress write so it does not recreate the file afterwards
+        while (!writing.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warnf("⚠️ Could not delete checkpoint %s: %s", file, e.getMessage());
+        }
+    }
+}
@@ -1,155 +1,551 @@
 package org.ravenpack.utils;
 
+import com.univocity.parsers.common.record.Record;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import org.ravenpack.config.LimiterProvider;
 import org.ravenpack.model.InputData;
 import org.ravenpack.model.OutputData;
+import org.ravenpack.service.AdaptiveLimiter;
 import org.ravenpack.service.AggregationService;
 import org.ravenpack.service.ScoringService;
+import org.ravenpack.service.TimeWindows;
 import org.ravenpack.service.TranslationService;
 
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 public class CsvProcessor {
     
     private static final Logger LOG = Logger.getLogger(CsvProcessor.class);
+
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
     
     @Inject TranslationService translation;
     @Inject ScoringService scoring;
 
-    @ConfigProperty(name = "processing.concurrency", defaultValue = "32")
-    int concurrency;
+    // Both stages follow processing.concurrency unless set on their own
+    @ConfigProperty(name = "processing.translation.concurrency", defaultValue = "${processing.concurrency:32}")
+    int translationConcurrency;
+
+    @ConfigProperty(name = "processing.scoring.concurrency", defaultValue = "${processing.concurrency:32}")
+    int scoringConcurrency;
+
+    @ConfigProperty(name = "processing.dedup.enabled", defaultValue = "false")
+    boolean dedupEnabled;
+
+    @ConfigProperty(name = "processing.skipEnglish", defaultValue = "true")
+    boolean skipEnglish;
+
+    @ConfigProperty(name = "window.mode", defaultValue = "none")
+    String windowMode;
+
+    @ConfigProperty(name = "window.size", defaultValue = "PT1H")
+    Duration windowSize;
+
+    @ConfigProperty(name = "window.buckets", defaultValue = "60")
+    int windowBuckets;
+
+    @ConfigProperty(name = "window.timestampColumn", defaultValue = "timestamp")
+    String windowTimestampColumn;
+
+    @ConfigProperty(name = "output.partitions", defaultValue = "1")
+    int outputPartitions;
+
+    @ConfigProperty(name = "output.sort", defaultValue = "none")
+    String outputSort;
+
+    @ConfigProperty(name = "output.bufferBytes", defaultValue = "1048576")
+    int outputBufferBytes;
+
+    @ConfigProperty(name = "processing.parse.threads", defaultValue = "1")
+    int parseThreads;
+
+    @ConfigProperty(name = "processing.parse.minBytes", defaultValue = "67108864")
+    long parseMinBytes;
+
+    @ConfigProperty(name = "checkpoint.enabled", defaultValue = "false")
+    boolean checkpointEnabled;
+
+    @ConfigProperty(name = "checkpoint.dir", defaultValue = "checkpoints")
+    String checkpointDir;
+
+    @ConfigProperty(name = "checkpoint.intervalMs", defaultValue = "30000")
+    long checkpointIntervalMs;
 
     @Inject
     MeterRegistry registry;
 
+    @Inject
+    LimiterProvider limiters;
+
+    /**
+     * Runs the pipeline over {@code inPath} and returns the result files: {@code outPath} itself,
+     * or one file per partition when {@code output.partitions} is greater than one.
+     */
+    public List<Path> process(String inPath, String outPath) throws Exception {
+        return process(inPath, outPath, new PipelineProgress());
+    }
+
+    /**
+     * Same as {@link #process(String, String)}, publishing live counters to {@code progress}.
+     * With {@code checkpoint.enabled}, a run over the same unchanged file resumes from the last
+     * checkpoint of an interrupted run.
+     */
+    public List<Path> process(String inPath, String outPath, PipelineProgress progress) throws Exception {
+        return process(inPath, outPath, progress, Path.of(inPath).toAbsolutePath().toString());
+    }
+
+    /**
+     * Same as {@link #process(String, String, PipelineProgress)}, with the checkpoint named after
+     * {@code checkpointKey} instead of the input path, e.g. a job id for an input that lives in a
+     * temp file: a later run with the same key over the same unchanged file resumes.
+     */
+    public List<Path> process(String inPath, String outPath, PipelineProgress progress, String checkpointKey)
+            throws Exception {
+        Path input = Path.of(inPath);
+        progress.totalBytes(Files.size(input));
+        var agg = newAggregation(progress);
+        Checkpointer checkpointer = null;
+        long resumeFrom = 0;
+        if (checkpointEnabled && (dedupEnabled || agg.windowed())) {
+            LOG.warn("⚠️ Checkpointing is only supported in row mode with all-time totals, running without checkpoints");
+        } else if (checkpointEnabled) {
+            checkpointer = new Checkpointer(Checkpointer.fileFor(Path.of(checkpointDir), checkpointKey),
+                    Checkpointer.fingerprint(checkpointKey, input), checkpointIntervalMs, agg);
+            resumeFrom = checkpointer.resume(progress);
+        }
 
-    public void process(String inPath, String outPath) throws Exception {
+        List<Path> files;
+        // Parallel chunks are read out of file order, so checkpointed runs parse sequentially
+        Multi<Record> parallel = checkpointer == null ? parallelRecords(input, progress) : null;
+        try (InputStream in = parallel == null ? Files.newInputStream(input) : InputStream.nullInputStream()) {
+            Multi<Record> records = parallel != null ? parallel : readRecords(in, progress);
+            files = run(records, inPath, outPath, progress, agg, checkpointer, resumeFrom);
+        } catch (Exception e) {
+            if (checkpointer != null) {
+                // Keep whatever was committed so a rerun does not start from scratch
+                checkpointer.writeNow();
+            }
+            throw e;
+        }
+        if (checkpointer != null) {
+            checkpointer.delete();
+        }
+        return files;
+    }
+
+    /**
+     * Deletes the checkpoint left by an interrupted run with {@code checkpointKey}, if any, once
+     * that run will not be resumed.
+     */
+    public void deleteCheckpoint(String checkpointKey) throws IOException {
+        Files.deleteIfExists(Checkpointer.fileFor(Path.of(checkpointDir), checkpointKey));
+    }
+
+    /**
+     * Runs the pipeline over a CSV byte stream, e.g. a request body as it arrives. Rows are parsed
+     * and dispatched while the stream is still being read, and nothing beyond the parser's read
+     * buffer is held in memory, except in dedup mode where the planning pass groups all rows first.
+     * The caller owns {@code input}; {@code inputName} is only used for logging.
+     */
+    public List<Path> process(InputStream input, String inputName, String outPath, PipelineProgress progress) throws Exception {
+        return run(readRecords(input, progress), inputName, outPath, progress, newAggregation(progress), null, 0);
+    }
+
+    /**
+     * Runs the pipeline over {@code input} and adds its scores to {@code agg} without writing any
+     * results, e.g. to accumulate totals over many files.
+     */
+    public void aggregate(Path input, AggregationService agg, PipelineProgress progress) throws Exception {
+        progress.totalBytes(Files.size(input));
+        progress.start();
+        Multi<Record> parallel = parallelRecords(input, progress);
+        try (InputStream in = parallel == null ? Files.newInputStream(input) : InputStream.nullInputStream()) {
+            Multi<Record> records = parallel != null ? parallel : readRecords(in, progress);
+            pipeline(records, agg, progress, null, 0)
+                    .onItem().ignoreAsUni()
+                    .await().indefinitely();
+        }
+        progress.finish();
+    }
+
+    /**
+     * Records of a large local file parsed in parallel chunks, or null when parallel parsing is
+     * off, the file is below {@code processing.parse.minBytes}, or it cannot be split safely.
+     */
+    private Multi<Record> parallelRecords(Path input, PipelineProgress progress) throws IOException {
+        int threads = parseThreads <= 0 ? Runtime.getRuntime().availableProcessors() : parseThreads;
+        if (threads <= 1 || Files.size(input) < parseMinBytes) {
+            return null;
+        }
+        // A few chunks per thread so that one slow chunk does not leave the others idle at the end
+        var reader = ParallelCsvReader.plan(input, threads * 4);
+        if (reader.isEmpty()) {
+            LOG.warnf("⚠️ %s cannot be split safely, parsing it sequentially", input);
+            return null;
+        }
+        LOG.infof("🧵 Parsing %s in %d chunks on %d threads", input, reader.get().chunkCount(), threads);
+        return reader.get().records(threads, progress);
+    }
+
+    private List<Path> run(Multi<Record> records, String inputName, String outPath, PipelineProgress progress,
+                           AggregationService agg, Checkpointer checkpointer, long resumeFrom) throws Exception {
         Instant startTime = Instant.now();
+        progress.start();
         LOG.infof("🚀 Starting content moderation pipeline...");
-        LOG.infof("📂 Input file: %s", inPath);
+        LOG.infof("📂 Input file: %s", inputName);
         LOG.infof("📝 Output file: %s", outPath);
-        LOG.infof("⚡ Concurrency level: %d", concurrency);
-        var processed = registry.counter("pipeline.messages.processed");
-        var failed = registry.counter("pipeline.messages.failed");
+        LOG.infof("⚡ Concurrency level: %d translations, %d scorings in flight",
+                fanOut(translationConcurrency), fanOut(scoringConcurrency));
 
-        LOG.info("📊 Parsing CSV input file...");
-        var settings = new CsvParserSettings();
-        settings.setHeaderExtractionEnabled(true);
-        settings.setLineSeparatorDetectionEnabled(true);
-        settings.setSkipEmptyLines(true);
-        settings.trimValues(true);
-        
-        // Auto-detect separator: try semicolon first (common in European CSVs), then comma
-        settings.setDelimiterDetectionEnabled(true, ',', ';');
-        
-        var parser = new CsvParser(settings);
-        List<com.univocity.parsers.common.record.Record> records =
-                parser.parseAllRecords(new FileReader(inPath, StandardCharsets.UTF_8));
+        pipeline(records, agg, progress, checkpointer, resumeFrom)
+                // Results live in the aggregation service; completed items are dropped, not collected
+                .onItem().ignoreAsUni()
+                .await().indefinitely();
 
-        LOG.infof("✅ Parsed %d messages to process", records.size());
-        if (records.isEmpty()) {
+        long totalMessages = progress.read();
+        if (totalMessages == 0) {
             LOG.warn("⚠️ No messages found in input file!");
         }
 
-        var agg = new AggregationService();
-        var permits = new Semaphore(Math.max(1, concurrency));
-        
-        // Progress tracking
-        final AtomicInteger processedCount = new AtomicInteger(0);
-        final AtomicInteger failedCount = new AtomicInteger(0);
-        final int totalMessages = records.size();
-        
-        LOG.infof("🔄 Starting async processing of %d messages...", totalMessages);
-
-        Multi.createFrom().iterable(records)
-                .onItem().transform(rec -> {
-                    String message = rec.getString("message");
-                    String userId = rec.getString("user_id");
-                    String normalized = MessageNormalizer.normalize(message);
-                    LOG.debugf("💬 Processing message from user %s: '%s' -> '%s'", userId, message, normalized);
-                    return new InputData(userId, message);
-                })
-                .onItem().transformToUniAndMerge(row -> {
-                    permits.acquireUninterruptibly();
-                    LOG.debugf("🌍 Translating message for user %s...", row.userId());
-                    return translation.toEnglish(row.message())
-                            .invoke(txt -> LOG.debugf("✅ Translation completed for user %s: '%s'", row.userId(), txt))
-                            .flatMap(txt -> {
-                                LOG.debugf("🎯 Scoring translated message for user %s...", row.userId());
-                                return scoring.score(txt)
-                                        .invoke(score -> {
-                                            if (score != null) {
-                                                LOG.debugf("✅ Score calculated for user %s: %.6f", row.userId(), score);
-                                                agg.add(row.userId(), score);
-                                                processed.increment();
-                                                int currentProcessed = processedCount.incrementAndGet();
-                                                if (currentProcessed % 10 == 0 || currentProcessed == totalMessages) {
-                                                    LOG.infof("📈 Progress: %d/%d messages processed (%.1f%%)", 
-                                                            currentProcessed, totalMessages, 
-                                                            (currentProcessed * 100.0) / totalMessages);
-                                                }
-                                            } else {
-                                                LOG.warnf("⚠️ Null score returned for user %s", row.userId());
-                                            }
-                                        });
-                            })
-                            .onFailure().invoke(throwable -> {
-                                failed.increment();
-                                int currentFailed = failedCount.incrementAndGet();
-                                LOG.errorf("❌ Processing failed for user %s (failure #%d): %s", 
-                                        row.userId(), currentFailed, throwable.getMessage());
-                            })
-                            .onFailure().recoverWithItem(() -> null)
-                            .eventually(() -> permits.release());
-                })
-                .collect().asList().await().indefinitely();
-
         Instant processingEndTime = Instant.now();
         Duration processingDuration = Duration.between(startTime, processingEndTime);
         LOG.infof("✅ Async processing completed in %d ms", processingDuration.toMillis());
         
         LOG.info("📊 Generating aggregation results...");
-        var snapshot = agg.snapshot();
-        int uniqueUsers = ((List<OutputData>) snapshot).size();
+        var snapshot = (List<OutputData>) agg.snapshot();
+        int uniqueUsers = snapshot.size();
         
         LOG.infof("📄 Writing results for %d unique users to output file...", uniqueUsers);
-        try (var w = new BufferedWriter(new FileWriter(outPath, StandardCharsets.UTF_8))) {
-            w.write("user_id;total_messages;avg_score");
-            w.newLine();
-            for (OutputData o : snapshot) {
-                LOG.debugf("📝 Writing result: %s -> %d messages, avg score: %.6f", 
-                        o.userId(), o.totalMessages(), o.avgScore());
-                w.write(o.userId() + ";" + o.totalMessages() + ";" +
-                        String.format(java.util.Locale.US, "%.6f", o.avgScore()));
-                w.newLine();
-            }
+        var writer = new ResultWriter(outputPartitions, ResultWriter.parseSort(outputSort), outputBufferBytes);
+        List<Path> files = writer.write(snapshot, Path.of(outPath));
+        if (files.size() > 1) {
+            LOG.infof("🗂️ Results split into %d partitions", files.size());
         }
         
+        progress.finish();
         Instant endTime = Instant.now();
         Duration totalDuration = Duration.between(startTime, endTime);
         
         LOG.infof("🎉 Content moderation pipeline completed successfully!");
         LOG.infof("📈 Summary: %d messages processed, %d unique users, %d failures", 
-                processedCount.get(), uniqueUsers, failedCount.get());
+                progress.processed(), uniqueUsers, progress.failed());
         LOG.infof("⏱️ Total execution time: %d ms", totalDuration.toMillis());
         LOG.infof("⚡ Average processing speed: %.2f messages/second", 
                 totalMessages / Math.max(1.0, totalDuration.toMillis() / 1000.0));
-        LOG.infof("📁 Results saved to: %s", outPath);
+        LOG.infof("📁 Results saved to: %s", files.size() == 1 ? outPath : files);
+        return files;
+    }
+
+    /**
+     * Streams partial per-user aggregates while the input is processed: every {@code interval},
+     * the current totals of each user who received a new score in that window are emitted. A user
+     * can therefore appear many times; the last aggregate for a user is the final one.
+     */
+    public Multi<OutputData> stream(InputStream input, Duration interval, PipelineProgress progress) {
+        var agg = newAggregation(progress);
+        return Multi.createFrom().deferred(() -> {
+                    progress.start();
+                    LOG.infof("🚀 Starting streaming content moderation pipeline (updates every %d ms)...",
+                            interval.toMillis());
+                    return pipeline(readRecords(input, progress), agg, progress, null, 0);
+                })
+                // The dedup planning pass blocks, so never build the pipeline on the event loop
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .group().intoLists().every(interval)
+                .onItem().transformToMultiAndConcatenate(batch -> {
+                    Set<String> users = new LinkedHashSet<>();
+                    batch.forEach(w -> users.addAll(w.senders().keySet()));
+                    return Multi.createFrom().iterable(users)
+                            .onItem().transform(agg::get)
+                            .select().where(Objects::nonNull);
+                })
+                .onTermination().invoke(() -> {
+                    progress.finish();
+                    LOG.infof("🎉 Streaming pipeline finished: %d messages processed, %d failures",
+                            progress.processed(), progress.failed());
+                });
+    }
+
+    /**
+     * Reads {@code records} and runs every message through translation and scoring, adding scores to
+     * {@code agg}. Emits each work item once its score has been aggregated. With a checkpointer,
+     * scores reach {@code agg} through it in row order and the first {@code resumeFrom} rows are
+     * skipped.
+     */
+    private Multi<Work> pipeline(Multi<Record> records, AggregationService agg, PipelineProgress progress,
+                                 Checkpointer checkpointer, long resumeFrom) {
+        var processed = registry.counter("pipeline.messages.processed");
+        var failed = registry.counter("pipeline.messages.failed");
+        var metrics = new PipelineMetrics(registry, progress.job());
+        AdaptiveLimiter translationLimiter = limiters != null ? limiters.translationLimiter().orElse(null) : null;
+        AdaptiveLimiter scoringLimiter = limiters != null ? limiters.scoringLimiter().orElse(null) : null;
+
+        // Row times are only needed, and dedup mode would lose them, when aggregating over a window
+        String timestampColumn = agg.windowed() ? windowTimestampColumn : null;
+        if (dedupEnabled && agg.windowed()) {
+            LOG.warn("⚠️ Windowed aggregation needs the time of every row, running in row mode instead of dedup mode");
+        }
+        Multi<Work> work;
+        if (dedupEnabled && !agg.windowed()) {
+            LOG.info("🧮 Planning pass: grouping rows by normalized message...");
+            work = planDeduplicated(records, progress, metrics);
+        } else {
+            LOG.info("🔄 Streaming CSV input file into async processing...");
+            work = records
+                    .onItem().transform(rec -> {
+                        long index = progress.rowRead() - 1;
+                        InputData row = toInput(rec, timestampColumn);
+                        long time = row.timestamp() != null ? row.timestamp().toEpochMilli() : -1;
+                        // Normalized here to time it per job; the services normalize again, which
+                        // leaves normalized text unchanged and takes the cheap ASCII path
+                        return Work.single(index, row.userId(), metrics.normalize(row.message()), time);
+                    })
+                    // Rows committed by the checkpoint of an interrupted run
+                    .select().where(w -> w.row() >= resumeFrom);
+        }
+
+        // Concurrency is bounded by demand: each merge(n) keeps at most n calls in flight and only
+        // requests a new upstream item when one of them completes, so no thread ever blocks.
+        // With the adaptive limiter, n is its maximum and the limiter decides how many calls go out.
+        return work
+                .onItem().transformToUni(w -> {
+                    LOG.debugf("🌍 Translating message for users %s...", w.senders().keySet());
+                    progress.started(w.rows());
+                    long begin = System.nanoTime();
+                    // Work messages are normalized, which is what the detector expects
+                    if (skipEnglish && LanguageDetector.isConfidentEnglish(w.message())) {
+                        metrics.translationSkipped(w.rows());
+                        return Uni.createFrom().item(new Translated(w, w.message(), begin));
+                    }
+                    long start = metrics.translationStarted();
+                    return limited(translationLimiter, () -> translation.callsRemote(w.message()),
+                                    () -> translation.toEnglish(w.message()))
+                            .onItemOrFailure().invoke((txt, f) -> metrics.translationDone(start, f == null))
+                            .invoke(txt -> LOG.debugf("✅ Translation completed for users %s: '%s'", w.senders().keySet(), txt))
+                            .map(txt -> new Translated(w, txt, begin))
+                            .onFailure().invoke(throwable -> {
+                                metrics.failed("translation", throwable, w.rows());
+                                onFailure(w, throwable, failed, progress, checkpointer);
+                            })
+                            // A null item is dropped by merge, so failed rows never reach scoring
+                            .onFailure().recoverWithNull();
+                })
+                .merge(fanOut(translationConcurrency))
+                .onItem().transformToUni(t -> {
+                    Work w = t.work();
+                    LOG.debugf("🎯 Scoring translated message for users %s...", w.senders().keySet());
+                    long start = metrics.scoringStarted();
+                    return limited(scoringLimiter, () -> scoring.callsRemote(t.text()), () -> scoring.score(t.text()))
+                            .onItemOrFailure().invoke((score, f) -> metrics.scoringDone(start))
+                            .invoke(score -> {
+                                if (score != null) {
+                                    LOG.debugf("✅ Score calculated for users %s: %.6f", w.senders().keySet(), score);
+                                    long aggregationStart = System.nanoTime();
+                                    if (checkpointer != null) {
+                                        checkpointer.completed(w.row(), w.senders(), score);
+                                    } else {
+                                        // Fan the score out to every user who sent this message
+                                        w.senders().forEach((userId, count) -> agg.add(userId, score, count, w.time()));
+                                    }
+                                    metrics.aggregated(aggregationStart);
+                                    metrics.messageDone(t.started());
+                                    processed.increment(w.rows());
+                                    long currentProcessed = progress.completed(w.rows());
+                                    if (currentProcessed / PROGRESS_LOG_INTERVAL
+                                            != (currentProcessed - w.rows()) / PROGRESS_LOG_INTERVAL) {
+                                        LOG.infof("📈 Progress: %d messages processed (%d read so far)",
+                                                currentProcessed, progress.read());
+                                    }
+                                } else {
+                                    progress.dropped(w.rows());
+                                    if (checkpointer != null) {
+                                        checkpointer.failed(w.row());
+                                    }
+                                    LOG.warnf("⚠️ Null score returned for users %s", w.senders().keySet());
+                                }
+                            })
+                            // Emit the work item once its score is aggregated; null (dropped) otherwise
+                            .map(score -> score == null ? null : w)
+                            .onFailure().invoke(throwable -> {
+                                metrics.failed("scoring", throwable, w.rows());
+                                onFailure(w, throwable, failed, progress, checkpointer);
+                            })
+                            .onFailure().recoverWithNull();
+                })
+                .merge(fanOut(scoringConcurrency))
+                // Cancelled or failed runs leave calls and queued items behind; take them off the gauges
+                .onTermination().invoke(metrics::close);
+    }
+
+    /**
+     * Runs a service call in a slot of {@code limiter} when it goes out to the remote service. The
+     * slot is taken before the call's timeout, retries and circuit breaker start, so time spent
+     * waiting for one never fails a call, and the limiter sees the outcome of the guarded call,
+     * timeouts included. Calls served from a cache tier or in process are not limited; {@code remote}
+     * is only asked when there is a limiter, so runs without one pay nothing for the check.
+     */
+    private static <T> Uni<T> limited(AdaptiveLimiter limiter, BooleanSupplier remote, Supplier<Uni<T>> call) {
+        return limiter != null && remote.getAsBoolean() ? limiter.run(call) : call.get();
+    }
+
+    private int fanOut(int concurrency) {
+        return Math.max(1, limiters != null ? limiters.fanOut(concurrency) : concurrency);
+    }
+
+    /**
+     * A fresh aggregation for one run: all-time totals, or per-user totals over the window
+     * configured by {@code window.*}. Feeds the live ranking of {@code progress}, if it has one.
+     */
+    private AggregationService newAggregation(PipelineProgress progress) {
+        TimeWindows.Mode mode = TimeWindows.parseMode(windowMode);
+        var agg = mode == null
+                ? new AggregationService()
+                : new AggregationService(new TimeWindows(mode, windowSize, windowBuckets));
+        if (progress.topScores() != null) {
+            agg.track(progress.topScores());
+        }
+        return agg;
+    }
+
+    /**
+     * Planning pass for dedup mode: reads the file once and groups rows by normalized message,
+     * counting how many times each user sent it. Every distinct message is then translated and
+     * scored exactly once. Memory grows with the number of distinct (message, user) pairs.
+     */
+    private Multi<Work> planDeduplicated(Multi<Record> records, PipelineProgress progress, PipelineMetrics metrics) {
+        Map<String, Map<String, Integer>> plan = new HashMap<>();
+        records
+                .onItem().invoke(rec -> {
+                    progress.rowRead();
+                    InputData row = toInput(rec, null);
+                    plan.computeIfAbsent(metrics.normalize(row.message()), k -> new HashMap<>(4))
+                            .merge(row.userId(), 1, Integer::sum);
+                })
+                .onItem().ignoreAsUni()
+                .await().indefinitely();
+
+        long rows = progress.read();
+        int unique = plan.size();
+        metrics.dedupPlanned(rows, unique);
+        LOG.infof("🧮 Dedup plan: %d rows -> %d unique messages (%.1f%% of calls saved)",
+                rows, unique, rows == 0 ? 0.0 : 100.0 * (1.0 - (double) unique / rows));
+
+        return Multi.createFrom().iterable(plan.entrySet())
+                .onItem().transform(e -> new Work(-1, e.getKey(), e.getValue(), -1,
+                        e.getValue().values().stream().mapToInt(Integer::intValue).sum()));
+    }
+
+    /**
+     * Reads a row; with {@code timestampColumn}, also its time if the input has that column.
+     */
+    private static InputData toInput(Record rec, String timestampColumn) {
+        String message = rec.getString("message");
+        String userId = rec.getString("user_id");
+        Instant timestamp = timestampColumn != null && rec.getMetaData().containsColumn(timestampColumn)
+                ? TimeWindows.parseTimestamp(rec.getString(timestampColumn))
+                : null;
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("💬 Processing message from user %s: '%s' -> '%s'",
+                    userId, message, MessageNormalizer.normalize(message));
+        }
+        return new InputData(userId, message, timestamp);
+    }
+
+    private static void onFailure(Work work, Throwable throwable, Counter failed, PipelineProgress progress,
+                                  Checkpointer checkpointer) {
+        if (checkpointer != null) {
+            checkpointer.failed(work.row());
+        }
+        failed.increment(work.rows());
+        long currentFailed = progress.failed(work.rows());
+        LOG.errorf("❌ Processing failed for users %s (failure #%d): %s",
+                work.senders().keySet(), currentFailed, throwable.getMessage());
+    }
+
+    /**
+     * A message to translate and score, with the users who sent it and how many times each.
+     * In row mode every row is its own work item and {@code row} is its index in the input;
+     * in dedup mode one item covers all copies and {@code row} is -1. {@code time} is the row
+     * time in epoch millis when aggregating over a window and the row has one, else -1.
+     */
+    private record Work(long row, String message, Map<String, Integer> senders, long time, int rows) {
+        static Work single(long row, String userId, String message, long time) {
+            return new Work(row, message, Collections.singletonMap(userId, 1), time, 1);
+        }
+    }
+
+    private record Translated(Work work, String text, long started) {}
+
+    /**
+     * Streams the records of a CSV input one at a time. The parser only reads ahead as far
+     * as downstream demand requires, so heap use does not depend on the input size.
+     */
+    Multi<Record> readRecords(InputStream input, PipelineProgress progress) {
+        return records(() -> {
+            var parser = new CsvParser(parserSettings());
+            parser.beginParsing(new InputStreamReader(progress.track(input), StandardCharsets.UTF_8));
+            return parser;
+        });
+    }
+
+    /**
+     * Emits the records of the parser returned by {@code begin}, which must have started parsing,
+     * on a worker thread and as demand allows. The parser is stopped when the stream ends.
+     */
+    static Multi<Record> records(Supplier<CsvParser> begin) {
+        return Multi.createFrom().resource(
+                        begin,
+                        parser -> Multi.createFrom().<CsvParser, Record>generator(() -> parser, (p, emitter) -> {
+                            Record rec = p.parseNextRecord();
+                            if (rec == null) {
+                                emitter.complete();
+                            } else {
+                                emitter.emit(rec);
+                            }
+                            return p;
+                        }))
+                .withFinalizer(CsvParser::stopParsing)
+                // Keep file and request body reads off the event loop: downstream demand is
+                // signalled from the threads completing translation/scoring calls.
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    static CsvParserSettings parserSettings() {
+        var settings = new CsvParserSettings();
+        settings.setHeaderExtractionEnabled(true);
+        settings.setLineSeparatorDetectionEnabled(true);
+        settings.setSkipEmptyLines(true);
+        settings.trimValues(true);
+
+        // Auto-detect separator: try semicolon first (common in European CSVs), then comma
+        settings.setDelimiterDetectionEnabled(true, ',', ';');
+        return settings;
     }
 }
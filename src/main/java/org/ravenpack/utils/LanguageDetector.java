@@ -0,0 +1,95 @@
+package org.ravenpack.utils;
+
+import java.util.Set;
+
+/**
+ * Tells whether a normalized message is confidently English, so that it can skip translation.
+ * <p>
+ * Words are matched against two small profiles: very frequent English words, and very frequent
+ * words of Spanish and the other languages we see (Portuguese, French, Italian). Words that are
+ * common in both, such as "no" or "a", are in neither. A message counts as English when it has at
+ * least {@link #MIN_ENGLISH_WORDS} English profile words and at least four times as many as
+ * non-English ones. Letters outside a-z after normalization (non-Latin scripts, or letters like
+ * ß and ø that have no decomposition) always mean "not English". Everything that is not confidently
+ * English is translated as before, so a miss only costs the call that was always made.
+ */
+public final class LanguageDetector {
+
+    static final int MIN_ENGLISH_WORDS = 2;
+
+    private static final Set<String> ENGLISH = Set.of(
+            "the", "and", "is", "are", "was", "were", "be", "been", "being", "am", "i", "you", "he", "she",
+            "it", "we", "they", "me", "him", "her", "us", "them", "my", "your", "his", "its", "our", "their",
+            "this", "that", "these", "those", "of", "to", "in", "on", "at", "for", "with", "from", "by", "about",
+            "into", "over", "after", "before", "than", "then", "there", "here", "what", "which", "who", "whom",
+            "whose", "when", "where", "why", "how", "all", "any", "some", "every", "each", "not", "do", "does",
+            "did", "done", "have", "has", "had", "will", "would", "can", "could", "should", "shall", "may",
+            "might", "must", "just", "very", "really", "so", "too", "also", "only", "but", "or", "if", "because",
+            "while", "again", "ever", "never", "always", "today", "tomorrow", "yesterday", "now", "good",
+            "great", "bad", "best", "worst", "new", "love", "like", "hate", "thanks", "thank", "please", "hello",
+            "hi", "hey", "morning", "night", "day", "help", "know", "think", "want", "need", "get", "got",
+            "make", "see", "look", "feel", "it's", "i'm", "don't", "can't", "won't", "isn't", "that's",
+            "doesn't", "didn't", "you're", "we're", "they're", "everyone", "everything", "nothing", "someone",
+            "something", "anyone", "people", "thing", "work", "time", "idea", "issue", "problem", "feature",
+            "wonderful", "amazing", "terrible", "awful", "beautiful", "stupid", "happy", "sad", "weather");
+
+    private static final Set<String> NON_ENGLISH = Set.of(
+            // Spanish
+            "el", "la", "los", "las", "un", "una", "unos", "unas", "y", "o", "pero", "con", "sin", "para",
+            "por", "de", "del", "al", "en", "que", "es", "esta", "estan", "estoy", "eres", "soy", "muy",
+            "mas", "como", "cuando", "donde", "porque", "hola", "gracias", "adios", "buenos", "buenas", "dias",
+            "noches", "tardes", "bien", "mal", "gusta", "tengo", "tiene", "hay", "todo", "todos", "nada",
+            "mi", "tu", "su", "nosotros", "ellos", "yo", "usted", "lo", "le", "les", "se", "te", "nos",
+            "este", "ese", "eso", "esto", "aqui", "ahora", "siempre", "nunca", "tambien", "mucho", "poco",
+            "amigo", "amiga", "mundo", "bueno", "malo", "gato", "perro", "casa", "senor", "hoy",
+            // Portuguese
+            "nao", "voce", "obrigado", "obrigada", "muito", "uma", "os", "ola", "bom", "dia", "tudo",
+            // French
+            "des", "et", "est", "je", "vous", "nous", "pas", "merci", "bonjour", "avec", "pour",
+            "mais", "tres", "c'est", "j'ai", "oui", "du", "au", "aux", "ce", "cette", "qui",
+            // Italian
+            "il", "gli", "di", "che", "non", "sono", "grazie", "ciao", "buongiorno", "per", "questo", "molto");
+
+    private LanguageDetector() {
+    }
+
+    /**
+     * True if {@code normalized} (output of {@link MessageNormalizer#normalize(String)}) is
+     * confidently English.
+     */
+    public static boolean isConfidentEnglish(String normalized) {
+        int english = 0;
+        int other = 0;
+        int n = normalized.length();
+        int start = -1;
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? normalized.charAt(i) : ' ';
+            if (isWordChar(c)) {
+                if (c > 'z') {
+                    // A letter the normalizer could not reduce to a-z
+                    return false;
+                }
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                String word = normalized.substring(start, i);
+                if (ENGLISH.contains(word)) {
+                    english++;
+                } else if (NON_ENGLISH.contains(word)) {
+                    other++;
+                }
+                start = -1;
+            }
+        }
+        return english >= MIN_ENGLISH_WORDS && english >= 4 * other;
+    }
+
+    // Letters and apostrophes make up words; digits, punctuation and symbols (e.g. emoji) separate them
+    private static boolean isWordChar(char c) {
+        if (c >= 'a' && c <= 'z' || c == '\'') {
+            return true;
+        }
+        return c > 0x7f && Character.isLetter(c);
+    }
+}
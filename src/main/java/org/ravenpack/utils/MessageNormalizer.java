@@ -3,20 +3,139 @@ package org.ravenpack.utils;
 import java.security.MessageDigest;
 import java.text.Normalizer;
 import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 public final class MessageNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("[\\p{InCombiningDiacriticalMarks}]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACE_BEFORE_PUNCTUATION = Pattern.compile("\\s+([!?.,;:])");
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    // Output of one normalize call is built here, so the only allocation is the result string
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+    private static final int MAX_RETAINED_BUFFER = 1 << 16;
+
+    /**
+     * Strips diacritics, trims, collapses whitespace to single spaces, lower-cases and removes
+     * spaces before punctuation, in a single scan. Pure-ASCII input skips NFD decomposition.
+     * Inputs whose lower-casing is context- or locale-sensitive (final sigma, dotted capital I,
+     * Turkish/Azeri/Lithuanian default locale) take the original multi-pass route so the output
+     * stays identical to it.
+     */
     public static String normalize(String s) {
         if (s == null) return "";
+        String lang = Locale.getDefault().getLanguage();
+        if (lang.equals("tr") || lang.equals("az") || lang.equals("lt")) {
+            return normalizeMultiPass(s);
+        }
+        String decomposed = isAscii(s) ? s : Normalizer.normalize(s, Normalizer.Form.NFD);
+        String n = normalizeDecomposed(decomposed);
+        return n != null ? n : normalizeMultiPass(s);
+    }
+
+    // Returns null when the input needs the multi-pass route
+    private static String normalizeDecomposed(String s) {
+        int start = 0;
+        int end = s.length();
+        // Trim: marks are stripped before trimming, so they count as trimmable at both ends
+        while (start < end && (s.charAt(start) <= ' ' || isCombiningMark(s.charAt(start)))) start++;
+        while (end > start && (s.charAt(end - 1) <= ' ' || isCombiningMark(s.charAt(end - 1)))) end--;
+
+        char[] buf = buffer(end - start);
+        int out = 0;
+        boolean pendingSpace = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (isCombiningMark(c)) {
+                continue;
+            }
+            if (isRegexWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                // A whitespace run becomes one space, unless punctuation follows it
+                if (!isSpacedPunctuation(c)) {
+                    buf[out++] = ' ';
+                }
+                pendingSpace = false;
+            }
+            if (c < 0x80) {
+                buf[out++] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+            } else if (c == '\u03A3' || c == '\u0130') {
+                return null;
+            } else if (Character.isHighSurrogate(c)) {
+                // Marks between the halves are stripped first, so the pair may still form
+                int j = i + 1;
+                while (j < end && isCombiningMark(s.charAt(j))) j++;
+                if (j < end && Character.isLowSurrogate(s.charAt(j))) {
+                    int lower = Character.toLowerCase(Character.toCodePoint(c, s.charAt(j)));
+                    if (!Character.isSupplementaryCodePoint(lower)) {
+                        return null;
+                    }
+                    out += Character.toChars(lower, buf, out);
+                    i = j;
+                } else {
+                    buf[out++] = c;
+                }
+            } else {
+                buf[out++] = Character.toLowerCase(c);
+            }
+        }
+        return new String(buf, 0, out);
+    }
+
+    private static char[] buffer(int length) {
+        if (length > MAX_RETAINED_BUFFER) {
+            return new char[length];
+        }
+        char[] buf = BUFFER.get();
+        if (buf.length < length) {
+            buf = new char[Math.max(length, buf.length * 2)];
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The Combining Diacritical Marks block, as matched by \p{InCombiningDiacriticalMarks}
+    private static boolean isCombiningMark(char c) {
+        return c >= '\u0300' && c <= '\u036F';
+    }
+
+    // The characters matched by the regex class \s
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isSpacedPunctuation(char c) {
+        return c == '!' || c == '?' || c == '.' || c == ',' || c == ';' || c == ':';
+    }
+
+    private static String normalizeMultiPass(String s) {
         // First normalize to NFD (decomposed form) to separate diacritics
         String n = Normalizer.normalize(s, Normalizer.Form.NFD);
         // Remove diacritical marks (combining characters)
-        n = n.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+        n = COMBINING_MARKS.matcher(n).replaceAll("");
         // Normalize spaces and convert to lowercase
-        n = n.trim().replaceAll("\\s+", " ").toLowerCase();
+        n = WHITESPACE.matcher(n.trim()).replaceAll(" ").toLowerCase();
         // Remove spaces before punctuation marks
-        n = n.replaceAll("\\s+([!?.,;:])", "$1");
+        n = SPACE_BEFORE_PUNCTUATION.matcher(n).replaceAll("$1");
         return n;
     }
+
     public static String hash(String s) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -26,4 +145,87 @@ public final class MessageNormalizer {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Non-cryptographic 128-bit cache key for {@code s}. This is MurmurHash3 (x64, 128-bit) over the
+     * UTF-16LE form of the string, read straight from its chars without encoding or allocating.
+     * The namespace is the seed, so translation and scoring keys for the same text differ.
+     */
+    public static CacheKey key(char namespace, String s) {
+        long h1 = namespace;
+        long h2 = namespace;
+        int n = s.length();
+        int i = 0;
+        for (; i + 8 <= n; i += 8) {
+            long k1 = chars(s, i);
+            long k2 = chars(s, i + 4);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int rem = n - i;
+        long k1 = 0;
+        long k2 = 0;
+        for (int j = 0; j < rem; j++) {
+            long c = s.charAt(i + j);
+            if (j < 4) {
+                k1 |= c << (16 * j);
+            } else {
+                k2 |= c << (16 * (j - 4));
+            }
+        }
+        if (rem > 4) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (rem > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        h1 ^= 2L * n;
+        h2 ^= 2L * n;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new CacheKey(h1, h2);
+    }
+
+    // Four chars as a little-endian long, i.e. 8 bytes of UTF-16LE
+    private static long chars(String s, int i) {
+        return (long) s.charAt(i)
+                | (long) s.charAt(i + 1) << 16
+                | (long) s.charAt(i + 2) << 32
+                | (long) s.charAt(i + 3) << 48;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
 }
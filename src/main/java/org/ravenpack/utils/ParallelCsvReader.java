@@ -0,0 +1,404 @@
+package org.ravenpack.utils;
+
+import com.univocity.parsers.common.record.Record;
+import com.univocity.parsers.csv.CsvFormat;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import io.smallrye.mutiny.Multi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a large local CSV file as independent byte ranges on several threads.
+ * <p>
+ * A newline ends a record only if it is outside quotes, i.e. preceded by an even number of quote
+ * characters since the start of the file. Planning therefore counts the quotes of each nominal
+ * range in parallel, turns the counts into the quote parity at each range start, and then moves
+ * every range start forward to the first newline with even parity. Both bytes are ASCII and never
+ * occur inside a multi-byte UTF-8 sequence, so the scan works on raw bytes. This relies on quotes
+ * only enclosing fields (and being doubled inside them), which is also what the parser expects.
+ * A quote inside an unquoted field, which the parser keeps as text, would flip the parity of the
+ * rest of the file, so a third parallel pass checks that every quote opens or closes a field where
+ * the parity says it does, and the first record of every chunk must have as many fields as the
+ * header. A file that fails either check is not split.
+ * <p>
+ * The delimiter, line separator and header are detected once on the head of the file with the
+ * same settings as the sequential reader, and every chunk parser is configured with them.
+ */
+public class ParallelCsvReader {
+
+    private static final int SCAN_BUFFER = 1 << 16;
+
+    private record Chunk(long start, long end) {}
+
+    private final Path file;
+    private final List<Chunk> chunks;
+    private final String[] headers;
+    private final CsvFormat format;
+
+    private ParallelCsvReader(Path file, List<Chunk> chunks, String[] headers, CsvFormat format) {
+        this.file = file;
+        this.chunks = chunks;
+        this.headers = headers;
+        this.format = format;
+    }
+
+    /**
+     * Splits {@code file} into about {@code chunks} ranges that each start at a record boundary.
+     * Empty when the file has no header, does not use {@code \n} line endings or has quotes the
+     * split cannot follow; such files have to be parsed sequentially.
+     */
+    public static Optional<ParallelCsvReader> plan(Path file, int chunks) throws IOException {
+        CsvParser head = new CsvParser(CsvProcessor.parserSettings());
+        head.beginParsing(new InputStreamReader(new RangeInputStream(file, 0, Long.MAX_VALUE), StandardCharsets.UTF_8));
+        try {
+            head.parseNextRecord();
+            String[] headers = head.getContext().headers();
+            CsvFormat format = head.getDetectedFormat();
+            if (headers == null || format == null || !format.getLineSeparatorString().endsWith("\n")
+                    || format.getQuote() != '"' || format.getQuoteEscape() != '"') {
+                return Optional.empty();
+            }
+
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size();
+                long dataStart = nextBoundary(ch, 0, false, size);
+                if (dataStart >= size) {
+                    return Optional.of(new ParallelCsvReader(file, List.of(), headers, format));
+                }
+
+                int n = (int) Math.max(1, Math.min(chunks, (size - dataStart) / SCAN_BUFFER));
+                long step = (size - dataStart) / n;
+                long[] nominal = new long[n + 1];
+                for (int i = 0; i < n; i++) {
+                    nominal[i] = dataStart + i * step;
+                }
+                nominal[n] = size;
+
+                // Pass 1: quote counts per nominal range, in parallel
+                long[] quotes = IntStream.range(0, n).parallel()
+                        .mapToLong(i -> countQuotes(ch, nominal[i], nominal[i + 1]))
+                        .toArray();
+
+                // Pass 2: from the parity at each range start, find the first record boundary
+                boolean[] inQuotes = new boolean[n];
+                long total = 0;
+                for (int i = 0; i < n; i++) {
+                    inQuotes[i] = (total & 1) == 1;
+                    total += quotes[i];
+                }
+                long[] starts = IntStream.range(0, n).parallel()
+                        .mapToLong(i -> i == 0 ? dataStart : nextBoundary(ch, nominal[i], inQuotes[i], size))
+                        .toArray();
+
+                // Pass 3: the parity only holds if every quote encloses a field
+                byte delimiter = (byte) format.getDelimiter();
+                if (!IntStream.range(0, n).parallel()
+                        .allMatch(i -> quotesEncloseFields(ch, nominal[i], nominal[i + 1], inQuotes[i], delimiter, size))) {
+                    return Optional.empty();
+                }
+
+                List<Chunk> ranges = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    long end = i + 1 < n ? starts[i + 1] : size;
+                    // Equal starts mean one record spans a whole nominal range; skip the empty chunk
+                    if (end > starts[i]) {
+                        ranges.add(new Chunk(starts[i], end));
+                    }
+                }
+                var reader = new ParallelCsvReader(file, ranges, headers, format);
+                return reader.chunksStartOnRecords() ? Optional.of(reader) : Optional.empty();
+            }
+        } finally {
+            head.stopParsing();
+        }
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Records from all chunks, parsed by up to {@code concurrency} parsers at a time. Records of a
+     * chunk keep their file order, but chunks interleave.
+     */
+    public Multi<Record> records(int concurrency, PipelineProgress progress) {
+        return Multi.createFrom().iterable(chunks)
+                .onItem().transformToMulti(chunk -> CsvProcessor.records(() -> {
+                    var parser = new CsvParser(chunkSettings());
+                    InputStream in = progress.track(new RangeInputStream(file, chunk.start(), chunk.end()));
+                    parser.beginParsing(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    return parser;
+                }))
+                .merge(Math.max(1, concurrency));
+    }
+
+    /**
+     * Whether the first record of every chunk after the first has the header's field count, as it
+     * would if the chunk started on a record boundary.
+     */
+    private boolean chunksStartOnRecords() {
+        for (int i = 1; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            var parser = new CsvParser(chunkSettings());
+            parser.beginParsing(new InputStreamReader(
+                    new RangeInputStream(file, chunk.start(), chunk.end()), StandardCharsets.UTF_8));
+            try {
+                String[] first = parser.parseNext();
+                if (first != null && first.length != headers.length) {
+                    return false;
+                }
+            } finally {
+                parser.stopParsing();
+            }
+        }
+        return true;
+    }
+
+    private CsvParserSettings chunkSettings() {
+        CsvParserSettings settings = CsvProcessor.parserSettings();
+        settings.setHeaderExtractionEnabled(false);
+        settings.setHeaders(headers);
+        settings.setDelimiterDetectionEnabled(false);
+        settings.setLineSeparatorDetectionEnabled(false);
+        settings.getFormat().setDelimiter(format.getDelimiterString());
+        settings.getFormat().setLineSeparator(format.getLineSeparatorString());
+        settings.getFormat().setQuote(format.getQuote());
+        settings.getFormat().setQuoteEscape(format.getQuoteEscape());
+        return settings;
+    }
+
+    private static long countQuotes(FileChannel ch, long from, long to) {
+        byte[] bytes = new byte[SCAN_BUFFER];
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        long count = 0;
+        try {
+            long pos = from;
+            while (pos < to) {
+                buf.clear().limit((int) Math.min(SCAN_BUFFER, to - pos));
+                int n = ch.read(buf, pos);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (bytes[i] == '"') {
+                        count++;
+                    }
+                }
+                pos += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Position just after the first newline at or after {@code from} that is outside quotes, given
+     * whether {@code from} itself is inside quotes; {@code size} if there is none.
+     */
+    private static long nextBoundary(FileChannel ch, long from, boolean inQuotes, long size) {
+        byte[] bytes = new byte[SCAN_BUFFER];
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        try {
+            long pos = from;
+            while (pos < size) {
+                buf.clear();
+                int n = ch.read(buf, pos);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    byte b = bytes[i];
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes) {
+                        return pos + i + 1;
+                    }
+                }
+                pos += n;
+            }
+            return size;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Whether every quote in {@code [from, to)} opens a field (after a delimiter, a newline or
+     * blanks following one), closes one (followed by blanks and a delimiter or newline) or is
+     * doubled inside one, given whether {@code from} is inside quotes. Reads on past {@code to}
+     * where that is needed to tell.
+     */
+    private static boolean quotesEncloseFields(FileChannel ch, long from, long to, boolean inQuotes,
+                                               byte delimiter, long size) {
+        int prev = byteBefore(ch, from, true);
+        boolean fieldStart = prev == delimiter || prev == '\n';
+        // Or the range starts on the second quote of a doubled pair, checked with the first
+        boolean pairSplit = byteBefore(ch, from, false) == '"';
+        var scan = new ByteScanner(ch, from, size);
+        boolean afterClose = false;
+        long pos = from;
+        while (pos < to || afterClose) {
+            int b = scan.next();
+            pos++;
+            if (b < 0) {
+                return true;
+            }
+            if (inQuotes) {
+                if (b == '"') {
+                    if (scan.peek() == '"') {
+                        scan.next();
+                        pos++;
+                    } else {
+                        inQuotes = false;
+                        afterClose = true;
+                    }
+                }
+            } else if (afterClose) {
+                if (b == delimiter || b == '\n') {
+                    afterClose = false;
+                    fieldStart = true;
+                } else if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            } else if (b == '"') {
+                if (!fieldStart && !(pos == from + 1 && pairSplit)) {
+                    return false;
+                }
+                inQuotes = true;
+                fieldStart = false;
+            } else if (b == delimiter || b == '\n') {
+                fieldStart = true;
+            } else if (b != ' ' && b != '\t') {
+                fieldStart = false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The byte before {@code pos}, or with {@code skipBlanks} the last one that is not a space or
+     * tab; -1 at the start of the file.
+     */
+    private static int byteBefore(FileChannel ch, long pos, boolean skipBlanks) {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        try {
+            while (--pos >= 0) {
+                one.clear();
+                if (ch.read(one, pos) <= 0) {
+                    return -1;
+                }
+                int b = one.get(0) & 0xFF;
+                if (!skipBlanks || b != ' ' && b != '\t') {
+                    return b;
+                }
+            }
+            return -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sequential buffered reads from a position of a file channel, one byte at a time.
+     */
+    private static final class ByteScanner {
+        private final FileChannel channel;
+        private final long size;
+        private final ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER).limit(0);
+        private long position;
+
+        ByteScanner(FileChannel channel, long position, long size) {
+            this.channel = channel;
+            this.position = position;
+            this.size = size;
+        }
+
+        /**
+         * The next byte, or -1 past the end of the file.
+         */
+        int next() {
+            int b = peek();
+            if (b >= 0) {
+                buf.get();
+            }
+            return b;
+        }
+
+        int peek() {
+            if (!buf.hasRemaining()) {
+                if (position >= size) {
+                    return -1;
+                }
+                try {
+                    buf.clear().limit((int) Math.min(SCAN_BUFFER, size - position));
+                    int n = channel.read(buf, position);
+                    buf.flip();
+                    if (n <= 0) {
+                        return -1;
+                    }
+                    position += n;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return buf.get(buf.position()) & 0xFF;
+        }
+    }
+
+    /**
+     * Reads {@code [start, end)} of a file with positional reads on its own channel.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(Path file, long start, long end) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n < 0) {
+                return -1;
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
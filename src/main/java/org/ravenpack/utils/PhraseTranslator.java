@@ -0,0 +1,162 @@
+package org.ravenpack.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dictionary translator that replaces words and phrases in a single left-to-right pass.
+ * <p>
+ * Entries are compiled once into a trie keyed by word, so a lookup costs one map probe per word
+ * of the longest candidate phrase, whatever the dictionary size. At every word the longest entry
+ * starting there wins ("no me gusta" before "me gusta" before "no"), and replaced text is never
+ * matched again. Words are runs of letters and digits; the separators between them (spaces,
+ * punctuation, emoji) are copied through, and a phrase only matches across whitespace.
+ * Unmatched words come out lower-cased. The result is upper-cased when the input was all upper
+ * case, and capitalized when the input started with a capital.
+ */
+public class PhraseTranslator {
+
+    private static final class Node {
+        String translation;
+        Map<String, Node> children;
+
+        Node child(String word) {
+            return children == null ? null : children.get(word);
+        }
+
+        Node addChild(String word) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(word, w -> new Node());
+        }
+    }
+
+    private final Node root = new Node();
+    private int entries;
+
+    public PhraseTranslator(Map<String, String> dictionary) {
+        dictionary.forEach(this::put);
+    }
+
+    /**
+     * Adds or replaces an entry. Not thread-safe; translators are built before they are shared.
+     */
+    public void put(String phrase, String translation) {
+        Node node = root;
+        String lower = phrase.toLowerCase(Locale.ROOT);
+        int n = lower.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !isWordChar(lower.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < n && isWordChar(lower.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                node = node.addChild(lower.substring(start, i));
+            }
+        }
+        if (node != root) {
+            if (node.translation == null) {
+                entries++;
+            }
+            node.translation = translation;
+        }
+    }
+
+    /**
+     * Loads {@code phrase<TAB>translation} lines on top of the current entries. Blank lines and
+     * lines starting with {@code #} are skipped.
+     */
+    public void load(Path tsv) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(tsv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && !line.startsWith("#")) {
+                    put(line.substring(0, tab), line.substring(tab + 1).trim());
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    public String translate(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int n = lower.length();
+        StringBuilder out = new StringBuilder(n + 16);
+        int copied = 0;
+        int i = 0;
+        while (i < n) {
+            if (!isWordChar(lower.charAt(i))) {
+                i++;
+                continue;
+            }
+            // Longest entry starting at the word at i
+            Node node = root;
+            String best = null;
+            int bestEnd = -1;
+            int pos = i;
+            while (pos < n && isWordChar(lower.charAt(pos))) {
+                int end = pos;
+                while (end < n && isWordChar(lower.charAt(end))) {
+                    end++;
+                }
+                node = node.child(lower.substring(pos, end));
+                if (node == null) {
+                    break;
+                }
+                if (node.translation != null) {
+                    best = node.translation;
+                    bestEnd = end;
+                }
+                // The next word of a phrase may only be separated by whitespace
+                pos = end;
+                while (pos < n && Character.isWhitespace(lower.charAt(pos))) {
+                    pos++;
+                }
+                if (pos == end) {
+                    break;
+                }
+            }
+            if (best != null) {
+                out.append(lower, copied, i).append(best);
+                copied = bestEnd;
+                i = bestEnd;
+            } else {
+                while (i < n && isWordChar(lower.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        out.append(lower, copied, n);
+
+        String result = out.toString();
+        if (text.equals(text.toUpperCase(Locale.ROOT))) {
+            return result.toUpperCase(Locale.ROOT);
+        }
+        if (Character.isUpperCase(text.charAt(0)) && !result.isEmpty()) {
+            return Character.toUpperCase(result.charAt(0)) + result.substring(1);
+        }
+        return result;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,241 @@
+package org.ravenpack.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.ravenpack.service.AdaptiveLimiter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-run meters, tagged with the run's job id: latency percentiles of each pipeline stage and of
+ * whole messages (stage {@code message}, from translation start to aggregation), calls in flight
+ * per downstream service, translated messages waiting for a scoring slot, translations skipped for
+ * English messages, and failures by cause. Runs outside the job API share the job tag
+ * {@code none}; the gauges of a tag add up the levels of every run using it, and {@link #close()}
+ * takes back what a finished or cancelled run still counted. Meters of a job stay registered after
+ * the run so they can still be scraped; {@link #remove(MeterRegistry, String)} drops them when the
+ * job is forgotten.
+ */
+public class PipelineMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    /** Gauge levels of each job tag, per registry; weak keys so test registries can be collected. */
+    private static final Map<MeterRegistry, Map<String, Levels>> LEVELS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** What the gauges of one job tag read: the sum over every run with that tag. */
+    private static final class Levels {
+        final AtomicLong translationInFlight = new AtomicLong();
+        final AtomicLong scoringInFlight = new AtomicLong();
+        final AtomicLong awaitingScoring = new AtomicLong();
+    }
+
+    private final MeterRegistry registry;
+    private final String job;
+    private final Timer normalize;
+    private final Timer translation;
+    private final Timer scoring;
+    private final Timer aggregation;
+    private final Timer message;
+    private final Counter translationSkipped;
+    private final Levels shared;
+    // This run's share of the gauge levels, taken back from them on close
+    private final AtomicLong translationInFlight = new AtomicLong();
+    private final AtomicLong scoringInFlight = new AtomicLong();
+    private final AtomicLong awaitingScoring = new AtomicLong();
+    private volatile boolean closed;
+
+    public PipelineMetrics(MeterRegistry registry, String job) {
+        this.registry = registry;
+        this.job = job;
+        this.normalize = stageTimer("normalize");
+        this.translation = stageTimer("translation");
+        this.scoring = stageTimer("scoring");
+        this.aggregation = stageTimer("aggregation");
+        this.message = stageTimer("message");
+        this.translationSkipped = Counter.builder("pipeline.translation.skipped")
+                .tag("job", job)
+                .description("Messages detected as English that skipped translation")
+                .register(registry);
+        this.shared = LEVELS.computeIfAbsent(registry, r -> new ConcurrentHashMap<>())
+                .computeIfAbsent(job, j -> register(registry, j));
+    }
+
+    /** Registers the gauges of a job tag; they keep reading the returned levels until removed. */
+    private static Levels register(MeterRegistry registry, String job) {
+        var levels = new Levels();
+        // Drop gauges left over from levels this class no longer tracks, since a gauge keeps the
+        // state object it was first registered with
+        registry.find("pipeline.inflight").tag("job", job).meters().forEach(registry::remove);
+        registry.find("pipeline.queue.depth").tag("job", job).meters().forEach(registry::remove);
+        Gauge.builder("pipeline.inflight", levels.translationInFlight, AtomicLong::get)
+                .tags("job", job, "service", "translation")
+                .description("Calls in flight to a downstream service")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("pipeline.inflight", levels.scoringInFlight, AtomicLong::get)
+                .tags("job", job, "service", "scoring")
+                .description("Calls in flight to a downstream service")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("pipeline.queue.depth", levels.awaitingScoring, AtomicLong::get)
+                .tags("job", job, "stage", "scoring")
+                .description("Translated messages waiting for a scoring slot")
+                .strongReference(true)
+                .register(registry);
+        return levels;
+    }
+
+    /** Moves this run's level and the shared one by {@code delta}. */
+    private void add(AtomicLong own, AtomicLong total, long delta) {
+        own.addAndGet(delta);
+        total.addAndGet(delta);
+        if (closed) {
+            // A call that ends after the run was cancelled: close() may have missed this update.
+            // Each unit is taken back exactly once, by whoever drains the run's level first
+            total.addAndGet(-own.getAndSet(0));
+        }
+    }
+
+    /**
+     * Ends the run: whatever it still counts as in flight or queued, because it was cancelled or
+     * failed with calls outstanding, comes off the gauges. Safe to call more than once.
+     */
+    public void close() {
+        closed = true;
+        shared.translationInFlight.addAndGet(-translationInFlight.getAndSet(0));
+        shared.scoringInFlight.addAndGet(-scoringInFlight.getAndSet(0));
+        shared.awaitingScoring.addAndGet(-awaitingScoring.getAndSet(0));
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("pipeline.stage")
+                .tags("job", job, "stage", stage)
+                .description("Time spent per message in a pipeline stage")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    /** Counts messages that went to scoring untranslated because they were already English. */
+    public void translationSkipped(int rows) {
+        translationSkipped.increment(rows);
+        add(awaitingScoring, shared.awaitingScoring, 1);
+    }
+
+    public String normalize(String message) {
+        long start = System.nanoTime();
+        String norm = MessageNormalizer.normalize(message);
+        normalize.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return norm;
+    }
+
+    /** Returns the start time to pass to {@link #translationDone(long, boolean)}. */
+    public long translationStarted() {
+        add(translationInFlight, shared.translationInFlight, 1);
+        return System.nanoTime();
+    }
+
+    public void translationDone(long start, boolean succeeded) {
+        add(translationInFlight, shared.translationInFlight, -1);
+        translation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (succeeded) {
+            add(awaitingScoring, shared.awaitingScoring, 1);
+        }
+    }
+
+    /** Returns the start time to pass to {@link #scoringDone(long)}. */
+    public long scoringStarted() {
+        add(awaitingScoring, shared.awaitingScoring, -1);
+        add(scoringInFlight, shared.scoringInFlight, 1);
+        return System.nanoTime();
+    }
+
+    public void scoringDone(long start) {
+        add(scoringInFlight, shared.scoringInFlight, -1);
+        scoring.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void aggregated(long start) {
+        aggregation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the plan of a dedup run: {@code rows} read, {@code unique} distinct messages to
+     * translate and score. The ratio is a summary rather than a gauge, so that runs sharing a tag,
+     * such as those outside the job API, each count instead of the last one overwriting the rest.
+     */
+    public void dedupPlanned(long rows, int unique) {
+        Counter.builder("pipeline.dedup.rows")
+                .tag("job", job)
+                .description("Rows read by dedup runs")
+                .register(registry)
+                .increment(rows);
+        Counter.builder("pipeline.dedup.unique")
+                .tag("job", job)
+                .description("Distinct messages translated and scored by dedup runs")
+                .register(registry)
+                .increment(unique);
+        DistributionSummary.builder("pipeline.dedup.ratio")
+                .tag("job", job)
+                .description("Share of a dedup run's rows that reused another row's translation and score")
+                .register(registry)
+                .record(rows == 0 ? 0.0 : 1.0 - (double) unique / rows);
+    }
+
+    /** Records the end-to-end time of a message whose pipeline started at {@code start} (nanoTime). */
+    public void messageDone(long start) {
+        message.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a failed message by cause: timeout, circuit_open, limited (adaptive concurrency limit)
+     * or error.
+     */
+    public void failed(String stage, Throwable failure, int rows) {
+        Counter.builder("pipeline.failures")
+                .tags("job", job, "stage", stage, "cause", cause(failure))
+                .description("Messages that failed, by stage and cause")
+                .register(registry)
+                .increment(rows);
+    }
+
+    static String cause(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof java.util.concurrent.TimeoutException) {
+                return "timeout";
+            }
+            if (t instanceof CircuitBreakerOpenException) {
+                return "circuit_open";
+            }
+            if (t instanceof AdaptiveLimiter.LimitExceededException) {
+                return "limited";
+            }
+        }
+        return "error";
+    }
+
+    /**
+     * Removes every meter tagged with {@code job}.
+     */
+    public static void remove(MeterRegistry registry, String job) {
+        Map<String, Levels> levels = LEVELS.get(registry);
+        if (levels != null) {
+            levels.remove(job);
+        }
+        for (String name : new String[]{"pipeline.stage", "pipeline.inflight", "pipeline.queue.depth", "pipeline.failures",
+                "pipeline.translation.skipped", "pipeline.dedup.rows", "pipeline.dedup.unique", "pipeline.dedup.ratio"}) {
+            registry.find(name).tag("job", job).meters().forEach(registry::remove);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.ravenpack.utils;
+
+import org.ravenpack.model.JobStatus;
+import org.ravenpack.service.TopScores;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters for one pipeline run, safe to read from other threads while the run is going.
+ * Messages move from read to in flight, and leave in flight as processed or failed.
+ */
+public class PipelineProgress {
+
+    /** Job tag of runs that are not background jobs. */
+    public static final String NO_JOB = "none";
+
+    private final String job;
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Rows finished by an earlier run, counted in processed/failed but not in this run's throughput
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile long totalBytes = -1;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private volatile TopScores topScores;
+
+    public PipelineProgress() {
+        this(NO_JOB);
+    }
+
+    public PipelineProgress(String job) {
+        this.job = job;
+    }
+
+    /** The job this run belongs to, used to tag its metrics. */
+    public String job() {
+        return job;
+    }
+
+    /**
+     * Asks the run to keep {@code top} ranked as scores arrive, so it can be read while the run
+     * is going. Must be set before the run starts.
+     */
+    public void trackTopScores(TopScores top) {
+        topScores = top;
+    }
+
+    /** The live ranking of this run, or null if none was asked for. */
+    public TopScores topScores() {
+        return topScores;
+    }
+
+    /** Restarts the clock; called when the run actually begins, not when it is queued. */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Seeds the counters with rows finished by an earlier, interrupted run.
+     */
+    public void restore(long processedRows, long failedRows) {
+        processed.addAndGet(processedRows);
+        failed.addAndGet(failedRows);
+        restored.addAndGet(processedRows + failedRows);
+    }
+
+    /** Rows finished by an earlier run and restored from its checkpoint. */
+    public long restored() {
+        return restored.get();
+    }
+
+    public long rowRead() {
+        return read.incrementAndGet();
+    }
+
+    public void started(int rows) {
+        inFlight.addAndGet(rows);
+    }
+
+    /** Returns the new processed total. */
+    public long completed(int rows) {
+        inFlight.addAndGet(-rows);
+        return processed.addAndGet(rows);
+    }
+
+    /** Returns the new failed total. */
+    public long failed(int rows) {
+        inFlight.addAndGet(-rows);
+        return failed.addAndGet(rows);
+    }
+
+    /** Rows that left the pipeline without a score or a failure, e.g. a null score. */
+    public void dropped(int rows) {
+        inFlight.addAndGet(-rows);
+    }
+
+    public void totalBytes(long bytes) {
+        totalBytes = bytes;
+    }
+
+    /**
+     * Wraps the input so that bytes handed to the parser count towards {@link #bytesRead()}.
+     */
+    public InputStream track(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) {
+                    bytesRead.addAndGet(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    public long read() {
+        return read.get();
+    }
+
+    public long inFlight() {
+        return inFlight.get();
+    }
+
+    public long processed() {
+        return processed.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    public long bytesRead() {
+        return bytesRead.get();
+    }
+
+    /** Input size in bytes, or -1 when unknown (e.g. a streamed upload). */
+    public long totalBytes() {
+        return totalBytes;
+    }
+
+    public double elapsedSeconds() {
+        long end = endNanos == 0 ? System.nanoTime() : endNanos;
+        return (end - startNanos) / 1e9;
+    }
+
+    /**
+     * Messages finished (processed or failed) by this run per second since it started; rows
+     * restored from a checkpoint were finished earlier and do not count.
+     */
+    public double throughput() {
+        double elapsed = elapsedSeconds();
+        return elapsed <= 0 ? 0.0 : (processed() + failed() - restored()) / elapsed;
+    }
+
+    /**
+     * Snapshot of the counters in the shape used by the job API.
+     */
+    public JobStatus status(String id, JobStatus.State state, String error) {
+        boolean queued = state == JobStatus.State.QUEUED;
+        double eta = switch (state) {
+            case RUNNING -> etaSeconds();
+            case SUCCEEDED -> 0.0;
+            default -> -1;
+        };
+        return new JobStatus(id, state, read(), processed(), failed(), inFlight(), bytesRead(), totalBytes(),
+                queued ? 0.0 : throughput(), eta, queued ? 0.0 : elapsedSeconds(), error);
+    }
+
+    /**
+     * Seconds left, extrapolating the total row count from the share of the input read so far.
+     * Returns -1 while there is not enough information to estimate.
+     */
+    public double etaSeconds() {
+        long total = totalBytes;
+        long bytes = bytesRead();
+        double rate = throughput();
+        if (total <= 0 || bytes <= 0 || rate <= 0) {
+            return -1;
+        }
+        double estimatedRows = read() * ((double) total / Math.min(bytes, total));
+        double remaining = Math.max(0, estimatedRows - processed() - failed());
+        return remaining / rate;
+    }
+}
@@ -122,6 +122,17 @@ public class SpanishTranslationDictionary {
         return new HashMap<>(SPANISH_TO_ENGLISH);
     }
     
+    /**
+     * Returns a {@link PhraseTranslator} over this dictionary, compiled on first use and shared.
+     */
+    public static PhraseTranslator translator() {
+        return TranslatorHolder.INSTANCE;
+    }
+
+    private static final class TranslatorHolder {
+        static final PhraseTranslator INSTANCE = new PhraseTranslator(SPANISH_TO_ENGLISH);
+    }
+
     /**
      * Gets the English translation for a Spanish word or phrase.
      * @param spanishText The Spanish text to translate
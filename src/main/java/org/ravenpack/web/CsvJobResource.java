@@ -0,0 +1,176 @@
+package org.ravenpack.web;
+
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.ravenpack.model.JobStatus;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.service.JobService;
+import org.ravenpack.utils.ResultWriter;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous variant of {@code POST /api/csv/process}: the upload is accepted right away and
+ * processed in the background, and clients poll for progress and fetch the result when done.
+ */
+@Path("/api/csv/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+public class CsvJobResource {
+
+    private static final Logger LOG = Logger.getLogger(CsvJobResource.class);
+
+    @Inject
+    JobService jobs;
+
+    @ConfigProperty(name = "streaming.intervalMs", defaultValue = "1000")
+    long streamingIntervalMs;
+
+    @ConfigProperty(name = "jobs.top.maxK", defaultValue = "1000")
+    int topMaxK;
+
+    @POST
+    @Consumes({MediaType.TEXT_PLAIN, "text/csv"})
+    public Response submit(InputStream body) {
+        java.nio.file.Path inputFile = null;
+        try {
+            inputFile = Files.createTempFile("job-input-", ".csv");
+            long bytes = Files.copy(body, inputFile, StandardCopyOption.REPLACE_EXISTING);
+            LOG.infof("📥 Received CSV job upload of %d bytes", bytes);
+
+            JobStatus status = jobs.submit(inputFile, CsvProcessingResource.outputDirectory());
+            return Response.accepted(status)
+                    .location(URI.create("/api/csv/jobs/" + status.id()))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(inputFile);
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 30)
+                    .entity("{\"error\":\"Job queue is full, try again later\"}")
+                    .build();
+        } catch (Exception e) {
+            deleteQuietly(inputFile);
+            LOG.errorf("❌ Error accepting CSV job: %s", e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("{\"error\":\"Error accepting CSV job\"}")
+                    .build();
+        }
+    }
+
+    /**
+     * Runs a failed job again over its kept input; with {@code checkpoint.enabled} it skips the
+     * rows that were committed before it failed.
+     */
+    @POST
+    @Path("/{id}/resume")
+    public Response resume(@PathParam("id") String id) {
+        try {
+            return jobs.resume(id)
+                    .map(s -> Response.accepted(s).location(URI.create("/api/csv/jobs/" + id)).build())
+                    .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("{\"error\":\"" + e.getMessage() + "\"}")
+                    .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 30)
+                    .entity("{\"error\":\"Job queue is full, try again later\"}")
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/{id}")
+    public Response status(@PathParam("id") String id) {
+        return jobs.status(id)
+                .map(s -> Response.ok(s).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    /**
+     * Server-Sent Events with the job status every {@code streaming.intervalMs}; the stream ends
+     * with the event that reports the job finished.
+     */
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<JobStatus> events(@PathParam("id") String id) {
+        return jobs.watch(id, Duration.ofMillis(streamingIntervalMs))
+                .orElseGet(() -> Multi.createFrom().failure(new NotFoundException("Unknown job " + id)));
+    }
+
+    /**
+     * The {@code k} users with the highest average score so far, highest first. Can be polled while
+     * the job runs; the cost depends on {@code k}, not on the number of users.
+     */
+    @GET
+    @Path("/{id}/top")
+    public Response top(@PathParam("id") String id, @QueryParam("k") @DefaultValue("10") int k) {
+        if (k < 1 || k > topMaxK) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\":\"k must be between 1 and " + topMaxK + "\"}")
+                    .build();
+        }
+        List<OutputData> top = jobs.top(id, k).orElse(null);
+        return top == null
+                ? Response.status(Response.Status.NOT_FOUND).build()
+                : Response.ok(top).build();
+    }
+
+    @GET
+    @Path("/{id}/result")
+    @Produces({"text/csv", MediaType.APPLICATION_JSON})
+    public Response result(@PathParam("id") String id) {
+        var status = jobs.status(id);
+        if (status.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (!status.get().finished()) {
+            return Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(status.get())
+                    .build();
+        }
+        var files = jobs.resultFiles(id);
+        if (files.isEmpty()) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(status.get())
+                    .build();
+        }
+
+        List<java.nio.file.Path> paths = files.get();
+        StreamingOutput stream = out -> ResultWriter.transferTo(paths, out);
+        return Response.ok(stream, "text/csv")
+                .header("X-Output-File", paths.stream()
+                        .map(f -> f.getFileName().toString())
+                        .collect(Collectors.joining(",")))
+                .build();
+    }
+
+    private static void deleteQuietly(java.nio.file.Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            LOG.warnf("⚠️ Could not delete %s: %s", file, e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package org.ravenpack.web;
 
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.ravenpack.model.OutputData;
 import org.ravenpack.utils.CsvProcessor;
+import org.ravenpack.utils.PipelineProgress;
+import org.ravenpack.utils.ResultWriter;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.time.Duration;
 import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Path("/api/csv")
 @Produces(MediaType.APPLICATION_JSON)
@@ -19,56 +30,42 @@ public class CsvProcessingResource {
     @Inject
     CsvProcessor csvProcessor;
 
+    @ConfigProperty(name = "streaming.intervalMs", defaultValue = "1000")
+    long streamingIntervalMs;
+
     @POST
     @Path("/process")
     @Consumes({MediaType.TEXT_PLAIN, "text/csv"})
     @Produces(MediaType.TEXT_PLAIN)
-    public Response processCsvContent(String csvContent) {
-        LOG.infof("🚀 Received CSV processing request with %d characters", csvContent.length());
+    public Response processCsvContent(InputStream body, @HeaderParam("Content-Length") Long contentLength) {
+        LOG.infof("🚀 Received CSV processing request (%s bytes)", contentLength == null ? "unknown" : contentLength);
 
         try {
-            java.nio.file.Path currentDir = java.nio.file.Paths.get(System.getProperty("user.dir"));
-            java.nio.file.Path projectRoot = currentDir;
-            
-            while (projectRoot != null && !Files.exists(projectRoot.resolve("build.gradle.kts"))) {
-                projectRoot = projectRoot.getParent();
-            }
-            
-            if (projectRoot == null) {
-                projectRoot = currentDir;
-            }
-            
-            java.nio.file.Path outputDir = projectRoot.resolve("output");
-            if (!Files.exists(outputDir)) {
-                Files.createDirectories(outputDir);
-            }
+            java.nio.file.Path outputDir = outputDirectory();
 
-            java.nio.file.Path inputFile = Files.createTempFile("input-", ".csv");
             String timestamp = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
             java.nio.file.Path outputFile = outputDir.resolve("processed-" + timestamp + ".csv");
 
-            // Write input content to temp file
-            Files.writeString(inputFile, csvContent, StandardCharsets.UTF_8);
-            LOG.infof("📝 Written input to: %s", inputFile);
-
-            // Process the CSV
+            // Parse the body as it arrives: no String copy and no temp input file
+            var progress = new PipelineProgress();
+            if (contentLength != null) {
+                progress.totalBytes(contentLength);
+            }
             long startTime = System.currentTimeMillis();
-            csvProcessor.process(inputFile.toString(), outputFile.toString());
+            List<java.nio.file.Path> files = csvProcessor.process(body, "request body", outputFile.toString(), progress);
             long processingTime = System.currentTimeMillis() - startTime;
 
-            // Read the result
-            String result = Files.readString(outputFile, StandardCharsets.UTF_8);
-
-            // Cleanup input file only, keep output file in output directory
-            Files.deleteIfExists(inputFile);
-
             LOG.infof("✅ Processing completed in %d ms", processingTime);
             LOG.infof("💾 Output file saved to: %s", outputFile.toAbsolutePath());
 
+            // Stream the result file back; partitioned output is returned as one CSV with a single header
+            StreamingOutput result = out -> ResultWriter.transferTo(files, out);
             return Response.ok()
                     .entity(result)
                     .header("X-Processing-Time-Ms", processingTime)
-                    .header("X-Output-File", outputFile.getFileName().toString())
+                    .header("X-Output-File", files.stream()
+                            .map(f -> f.getFileName().toString())
+                            .collect(Collectors.joining(",")))
                     .header("Content-Type", "text/csv")
                     .build();
 
@@ -80,6 +77,50 @@ public class CsvProcessingResource {
         }
     }
 
+    /**
+     * Processes the uploaded CSV and streams partial per-user aggregates as NDJSON while it runs.
+     * Each line is {@code {"userId":..,"totalMessages":..,"avgScore":..}}; a user is repeated
+     * whenever their totals change, and the last line for a user holds the final result.
+     * Nothing is written to the output directory.
+     */
+    @POST
+    @Path("/stream")
+    @Consumes({MediaType.TEXT_PLAIN, "text/csv"})
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Blocking
+    public Multi<OutputData> streamCsvContent(InputStream body, @HeaderParam("Content-Length") Long contentLength) {
+        LOG.infof("🚀 Received CSV streaming request (%s bytes)", contentLength == null ? "unknown" : contentLength);
+        var progress = new PipelineProgress();
+        if (contentLength != null) {
+            progress.totalBytes(contentLength);
+        }
+        return csvProcessor.stream(body, Duration.ofMillis(streamingIntervalMs), progress);
+    }
+
+    /**
+     * The {@code output/} directory next to build.gradle.kts, or under the working directory when
+     * the project root cannot be found. Created if missing.
+     */
+    static java.nio.file.Path outputDirectory() throws java.io.IOException {
+        java.nio.file.Path currentDir = java.nio.file.Paths.get(System.getProperty("user.dir"));
+        java.nio.file.Path projectRoot = currentDir;
+
+        while (projectRoot != null && !Files.exists(projectRoot.resolve("build.gradle.kts"))) {
+            projectRoot = projectRoot.getParent();
+        }
+
+        if (projectRoot == null) {
+            projectRoot = currentDir;
+        }
+
+        java.nio.file.Path outputDir = projectRoot.resolve("output");
+        if (!Files.exists(outputDir)) {
+            Files.createDirectories(outputDir);
+        }
+        return outputDir;
+    }
+
     @GET
     @Path("/sample")
     @Produces(MediaType.TEXT_PLAIN)
@@ -0,0 +1,64 @@
+package org.ravenpack;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.utils.CacheKey;
+import org.ravenpack.utils.MessageNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheKeyTest {
+
+    @Test
+    void key_is_stable() {
+        assertEquals(MessageNormalizer.key('t', "hola mundo"), MessageNormalizer.key('t', "hola mundo"));
+    }
+
+    @Test
+    void namespaces_produce_different_keys() {
+        assertNotEquals(MessageNormalizer.key('t', "hola mundo"), MessageNormalizer.key('s', "hola mundo"));
+    }
+
+    @Test
+    void no_collisions_on_sample_corpora() throws Exception {
+        Set<String> texts = new HashSet<>();
+        for (String file : new String[]{"sample-messages.csv", "spanish-test-messages.csv"}) {
+            List<String> lines = Files.readAllLines(Path.of(file), StandardCharsets.UTF_8);
+            for (String line : lines.subList(1, lines.size())) {
+                int sep = line.indexOf(';');
+                if (sep > 0) {
+                    texts.add(MessageNormalizer.normalize(line.substring(sep + 1)));
+                }
+            }
+        }
+        assertFalse(texts.isEmpty());
+        assertEquals(texts.size(), distinctKeys(texts), "every distinct normalized message needs its own key");
+    }
+
+    @Test
+    void no_collisions_on_synthetic_corpus() {
+        // Near-duplicates are the interesting case for cache keys: same copy with a counter or one char changed
+        Set<String> texts = new HashSet<>();
+        String[] phrases = {"hello", "hola", "bonjour", "this is terrible", "buenos dias", "i hate this!!!"};
+        for (int i = 0; i < 200_000; i++) {
+            String phrase = phrases[i % phrases.length];
+            texts.add(phrase + " " + i);
+            texts.add(i + phrase);
+        }
+        assertEquals(texts.size(), distinctKeys(texts));
+    }
+
+    private static int distinctKeys(Set<String> texts) {
+        Set<CacheKey> keys = new HashSet<>();
+        for (String text : texts) {
+            keys.add(MessageNormalizer.key('s', text));
+        }
+        return keys.size();
+    }
+}
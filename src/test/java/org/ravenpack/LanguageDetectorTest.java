@@ -0,0 +1,65 @@
+package org.ravenpack;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.utils.LanguageDetector;
+import org.ravenpack.utils.MessageNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LanguageDetectorTest {
+
+    private static boolean english(String message) {
+        return LanguageDetector.isConfidentEnglish(MessageNormalizer.normalize(message));
+    }
+
+    private static List<String> messages(String file) throws Exception {
+        return Files.readAllLines(Path.of(file), StandardCharsets.UTF_8).stream()
+                .skip(1)
+                .map(line -> line.substring(line.indexOf(';') + 1).replace("\"", ""))
+                .toList();
+    }
+
+    @Test
+    void sample_corpus_is_english() throws Exception {
+        for (String message : messages("sample-messages.csv")) {
+            assertTrue(english(message), "should be detected as English: " + message);
+        }
+    }
+
+    @Test
+    void spanish_corpus_is_translated() throws Exception {
+        for (String message : messages("spanish-test-messages.csv")) {
+            assertFalse(english(message), "should not be detected as English: " + message);
+        }
+    }
+
+    @Test
+    void other_languages_and_mixed_messages_are_translated() {
+        assertFalse(english("Je ne sais pas, merci beaucoup"));
+        assertFalse(english("Obrigado, você é muito legal"));
+        assertFalse(english("Grazie mille, questo è molto bello"));
+        assertFalse(english("hola, how are you? estoy muy bien y tu?"));
+        assertFalse(english("Привет, как дела? this is it"));
+        assertFalse(english("Straße is the best"));
+    }
+
+    @Test
+    void short_or_unknown_messages_are_translated() {
+        assertFalse(english(""));
+        assertFalse(english("hello"));
+        assertFalse(english("😀 👍 !!!"));
+        assertFalse(english("palabra desconocida"));
+    }
+
+    @Test
+    void english_with_emoji_and_punctuation_is_detected() {
+        assertTrue(english("Thanks for the help; really appreciate it 👍"));
+        assertTrue(english("WHAT a STUPID idea!!! it's never going to work..."));
+        assertTrue(english("I love this new feature"));
+    }
+}
@@ -3,6 +3,10 @@ package org.ravenpack;
 import org.junit.jupiter.api.Test;
 import org.ravenpack.utils.MessageNormalizer;
 
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MessageNormalizerTest {
@@ -12,10 +16,65 @@ public class MessageNormalizerTest {
         assertEquals("hola mundo!", MessageNormalizer.normalize(" hola mundo!  "));
     }
 
+    @Test
+    void normalize_strips_accents_and_spaces_before_punctuation() {
+        assertEquals("hola!!!", MessageNormalizer.normalize("  hóla   !!! "));
+        assertEquals("buenos dias, que tal?", MessageNormalizer.normalize("Buenos   Días ,\tqué tal ?"));
+    }
+
     @Test
     void hash_is_stable() {
         String a = MessageNormalizer.hash("x");
         String b = MessageNormalizer.hash("x");
         assertEquals(a, b);
     }
+
+    @Test
+    void single_pass_matches_regex_implementation() {
+        // Whitespace, punctuation, accents, loose combining marks, case-sensitive letters
+        // (sigma, dotted/dotless i), ligatures, emoji and surrogate halves
+        String alphabet = " \t\n\u000B\f\r\u0001\u001F !?.,;:-'\"aAzZiIıİΣσς"
+                + "éÉñÑüÜçḈ̧̈ßﬁ"
+                + "😀𐐀\uD801ǅǄ0123456789日本";
+        int[] codePoints = alphabet.codePoints().toArray();
+        Random random = new Random(42);
+        Locale original = Locale.getDefault();
+        try {
+            for (String language : new String[]{"en", "tr"}) {
+                Locale.setDefault(Locale.forLanguageTag(language));
+                for (int i = 0; i < 100_000; i++) {
+                    StringBuilder sb = new StringBuilder();
+                    int length = random.nextInt(25);
+                    for (int j = 0; j < length; j++) {
+                        if (random.nextInt(4) == 0) {
+                            sb.append((char) random.nextInt(0x10000));
+                        } else {
+                            sb.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+                        }
+                    }
+                    String input = sb.toString();
+                    assertEquals(reference(input), MessageNormalizer.normalize(input), () -> "input: " + escape(input));
+                }
+            }
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    // The original multi-pass implementation, kept here as the oracle
+    private static String reference(String s) {
+        String n = Normalizer.normalize(s, Normalizer.Form.NFD);
+        n = n.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+        n = n.trim().replaceAll("\\s+", " ").toLowerCase();
+        n = n.replaceAll("\\s+([!?.,;:])", "$1");
+        return n;
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            sb.append(c < 0x20 || c > 0x7e ? String.format("\\u%04X", (int) c) : String.valueOf(c));
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,79 @@
+package org.ravenpack;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.utils.PhraseTranslator;
+import org.ravenpack.utils.SpanishTranslationDictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhraseTranslatorTest {
+
+    private static String translate(String text) {
+        return SpanishTranslationDictionary.translator().translate(text);
+    }
+
+    @Test
+    void longest_phrase_wins() {
+        assertEquals("I like the cat", translate("me gusta el gato"));
+        assertEquals("good morning", translate("buenos días"));
+        var translator = new PhraseTranslator(Map.of("no", "not", "me gusta", "I like", "no me gusta", "I don't like"));
+        assertEquals("I don't like it", translator.translate("no me gusta it"));
+        // No entry for "no me": fall back to the longest shorter one
+        assertEquals("not me", translator.translate("no me"));
+    }
+
+    @Test
+    void replaced_text_is_not_translated_again() {
+        // With sequential regex replacement "una" -> "a" -> "to"
+        var translator = new PhraseTranslator(Map.of("una", "a", "a", "to"));
+        assertEquals("a casa to", translator.translate("una casa a"));
+    }
+
+    @Test
+    void matches_whole_words_and_keeps_separators() {
+        assertEquals("holamundo", translate("holamundo"));
+        assertEquals("¡hello, world!", translate("¡hola, mundo!"));
+        // Phrases only match across whitespace
+        var translator = new PhraseTranslator(Map.of("buenos días", "good morning"));
+        assertEquals("buenos, días", translator.translate("buenos, días"));
+        assertEquals("good morning", translator.translate("buenos \t días"));
+    }
+
+    @Test
+    void case_follows_the_input() {
+        assertEquals("Hello", translate("Hola"));
+        assertEquals("HELLO WORLD", translate("HOLA MUNDO"));
+        assertEquals("palabra desconocida", translate("palabra desconocida"));
+        assertEquals("", translate(""));
+    }
+
+    @Test
+    void scales_to_large_dictionaries() {
+        Map<String, String> dictionary = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            dictionary.put("palabra" + i + (i % 3 == 0 ? " extra" + i : ""), "word" + i);
+        }
+        var translator = new PhraseTranslator(dictionary);
+        assertEquals(200_000, translator.size());
+        assertEquals("word3 word4 palabra200000", translator.translate("palabra3 extra3 palabra4 palabra200000"));
+    }
+
+    @Test
+    void loads_tab_separated_entries() throws Exception {
+        Path file = Files.createTempFile("dictionary", ".tsv");
+        try {
+            Files.writeString(file, "# comment\nperro grande\tbig dog\n\nhola\thi\n", StandardCharsets.UTF_8);
+            var translator = new PhraseTranslator(SpanishTranslationDictionary.getSpanishToEnglishDictionary());
+            translator.load(file);
+            assertEquals("hi big dog", translator.translate("hola perro grande"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
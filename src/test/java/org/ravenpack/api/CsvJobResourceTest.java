@@ -0,0 +1,126 @@
+package org.ravenpack.api;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.WireMockResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+@TestProfile(CsvJobResourceTest.ShortRetention.class)
+@QuarkusTestResource(WireMockResource.class)
+class CsvJobResourceTest {
+
+    // Long enough for a test to check a finished job, short enough to see it evicted
+    public static class ShortRetention implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("jobs.retention", "5");
+        }
+    }
+
+    private static String submit(String csv) {
+        return given()
+                .contentType("text/csv")
+                .body(csv)
+            .when()
+                .post("/api/csv/jobs")
+            .then()
+                .statusCode(202)
+                .extract().path("id");
+    }
+
+    private static String awaitFinished(String id) throws InterruptedException {
+        String state = "QUEUED";
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!state.equals("SUCCEEDED") && !state.equals("FAILED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            state = given().get("/api/csv/jobs/" + id).then().statusCode(200).extract().path("state");
+        }
+        return state;
+    }
+
+    @Test
+    void job_runs_in_background_and_result_can_be_downloaded() throws Exception {
+        String id = given()
+                .contentType("text/csv")
+                .body("user_id,message\nu1,hello\nu2,hola\nu1,bye\n")
+            .when()
+                .post("/api/csv/jobs")
+            .then()
+                .statusCode(202)
+                .header("Location", containsString("/api/csv/jobs/"))
+                .body("state", anyOf(equalTo("QUEUED"), equalTo("RUNNING")))
+                .extract().path("id");
+
+        assertEquals("SUCCEEDED", awaitFinished(id));
+
+        given().get("/api/csv/jobs/" + id)
+            .then()
+                .body("read", equalTo(3))
+                .body("inFlight", equalTo(0));
+
+        // Only u1 sent the 2 messages needed to be ranked
+        given().get("/api/csv/jobs/" + id + "/top?k=5")
+            .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].userId", equalTo("u1"))
+                .body("[0].totalMessages", equalTo(2));
+        given().get("/api/csv/jobs/" + id + "/top?k=0").then().statusCode(400);
+
+        // The event stream of a finished job is a single final status
+        given()
+                .accept("text/event-stream")
+            .when()
+                .get("/api/csv/jobs/" + id + "/events")
+            .then()
+                .statusCode(200)
+                .body(containsString("\"state\":\"SUCCEEDED\""));
+
+        String csv = given()
+            .when()
+                .get("/api/csv/jobs/" + id + "/result")
+            .then()
+                .statusCode(200)
+                .contentType(containsString("text/csv"))
+                .extract().asString();
+        assertTrue(csv.startsWith("user_id;total_messages;avg_score"), "Unexpected result:\n" + csv);
+    }
+
+    @Test
+    void evicted_job_takes_its_result_files_with_it() throws Exception {
+        String id = submit("user_id,message\nu1,hello\n");
+        assertEquals("SUCCEEDED", awaitFinished(id));
+        String name = given().get("/api/csv/jobs/" + id + "/result")
+            .then()
+                .statusCode(200)
+                .extract().header("X-Output-File");
+        // Where CsvProcessingResource writes results: output/ under the project root, the test working directory
+        Path result = Path.of(System.getProperty("user.dir"), "output", name);
+        assertTrue(Files.exists(result), "Expected the result file " + result);
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (given().get("/api/csv/jobs/" + id).statusCode() != 404 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        given().get("/api/csv/jobs/" + id).then().statusCode(404);
+        assertFalse(Files.exists(result), "the result file is deleted with the job");
+    }
+
+    @Test
+    void unknown_job_is_not_found() {
+        given().get("/api/csv/jobs/does-not-exist").then().statusCode(404);
+        given().get("/api/csv/jobs/does-not-exist/result").then().statusCode(404);
+        given().get("/api/csv/jobs/does-not-exist/top").then().statusCode(404);
+    }
+}
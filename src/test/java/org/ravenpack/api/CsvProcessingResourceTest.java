@@ -0,0 +1,90 @@
+package org.ravenpack.api;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.WireMockResource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@QuarkusTestResource(WireMockResource.class)
+class CsvProcessingResourceTest {
+
+    @Test
+    void streamed_upload_is_processed_and_result_streamed_back() {
+        var csv = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("u").append(i % 5).append(",hello number ").append(i % 10).append('\n');
+        }
+
+        given()
+                .contentType("text/csv")
+                // An InputStream body is sent chunked, without a Content-Length
+                .body(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)))
+            .when()
+                .post("/api/csv/process")
+            .then()
+                .statusCode(200)
+                .header("X-Output-File", startsWith("processed-"))
+                .body(startsWith("user_id;total_messages;avg_score"))
+                // Every user either has all 40 messages aggregated, or none if the circuit breaker is open
+                .body(not(matchesPattern("(?s).*\\nu\\d;(?!40;).*")));
+    }
+
+    @Test
+    void upload_above_the_quarkus_default_body_limit_is_accepted() {
+        // 11 MiB, over the 10240K Quarkus default; the parser skips the empty lines, so it stays quick
+        byte[] csv = new byte[11 << 20];
+        byte[] rows = "user_id,message\nbig1,hello big upload\n".getBytes(StandardCharsets.UTF_8);
+        Arrays.fill(csv, (byte) '\n');
+        System.arraycopy(rows, 0, csv, 0, rows.length);
+
+        given()
+                .contentType("text/csv")
+                .body(csv)
+            .when()
+                .post("/api/csv/process")
+            .then()
+                .statusCode(200)
+                .body(startsWith("user_id;total_messages;avg_score"));
+    }
+
+    @Test
+    void stream_emits_partial_aggregates_as_ndjson() {
+        var csv = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < 30; i++) {
+            csv.append("s").append(i % 3).append(",stream message ").append(i % 4).append('\n');
+        }
+
+        String ndjson = given()
+                .contentType("text/csv")
+                .body(csv.toString())
+            .when()
+                .post("/api/csv/stream")
+            .then()
+                .statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .extract().asString();
+
+        // The last line per user is the final aggregate
+        Map<String, Integer> finalCounts = new HashMap<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isBlank()) {
+                JsonPath json = new JsonPath(line);
+                finalCounts.put(json.getString("userId"), json.getInt("totalMessages"));
+            }
+        }
+        // Users may be missing if the circuit breaker is open, but never partially counted at the end
+        finalCounts.values().forEach(count -> assertEquals(10, count));
+    }
+}
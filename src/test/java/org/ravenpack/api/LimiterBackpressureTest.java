@@ -0,0 +1,110 @@
+package org.ravenpack.api;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.smallrye.faulttolerance.api.CircuitBreakerMaintenance;
+import io.smallrye.faulttolerance.api.CircuitBreakerState;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.service.ScoringService;
+import org.ravenpack.service.TranslationService;
+import org.ravenpack.utils.CsvProcessor;
+import org.ravenpack.utils.PipelineProgress;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the pipeline with the limiter on and its default settings against slow backends: the
+ * stages keep {@code limiter.maxLimit} items in flight while the limiter starts far lower, so most
+ * items wait for a slot. Waiting must not count against the calls' timeout.
+ */
+@QuarkusTest
+@TestProfile(LimiterBackpressureTest.LimiterEnabled.class)
+@QuarkusTestResource(value = LimiterBackpressureTest.SlowBackend.class, restrictToAnnotatedClass = true)
+class LimiterBackpressureTest {
+
+    private static final int ROWS = 1000;
+
+    public static class LimiterEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("limiter.enabled", "true");
+        }
+    }
+
+    public static class SlowBackend implements QuarkusTestResourceLifecycleManager {
+        WireMockServer server;
+
+        @Override
+        public Map<String, String> start() {
+            // Enough threads to serve every call at once, so the latency is only the stub delay
+            server = new WireMockServer(wireMockConfig().dynamicPort().containerThreads(300));
+            server.start();
+            server.stubFor(get(urlPathEqualTo("/translate"))
+                    .willReturn(aResponse()
+                            .withFixedDelay(100)
+                            .withStatus(200)
+                            .withHeader("Content-Type", "text/plain")
+                            .withTransformers("response-template")
+                            .withBody("{{request.query.q}}")));
+            server.stubFor(get(urlPathEqualTo("/score"))
+                    .willReturn(aResponse()
+                            .withFixedDelay(100)
+                            .withStatus(200)
+                            .withHeader("Content-Type", "text/plain")
+                            .withBody("0.5")));
+            return Map.of(
+                    "quarkus.rest-client.translation.url", "http://localhost:" + server.port(),
+                    "quarkus.rest-client.scoring.url", "http://localhost:" + server.port());
+        }
+
+        @Override
+        public void stop() {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    @Inject
+    CsvProcessor processor;
+
+    @Inject
+    CircuitBreakerMaintenance breakers;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void waiting_for_a_slot_does_not_time_out_calls_or_trip_breakers() throws Exception {
+        Path in = Files.createTempFile("in", ".csv");
+        Path out = Files.createTempFile("out", ".csv");
+        StringBuilder csv = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < ROWS; i++) {
+            // Every message is distinct, so every row calls both services
+            csv.append("u").append(i % 50).append(",mensaje numero ").append(i).append('\n');
+        }
+        Files.writeString(in, csv);
+
+        var progress = new PipelineProgress();
+        processor.process(in.toString(), out.toString(), progress);
+
+        assertEquals(ROWS, progress.processed());
+        assertEquals(0, progress.failed());
+        assertEquals(CircuitBreakerState.CLOSED, breakers.currentState(TranslationService.CIRCUIT_BREAKER));
+        assertEquals(CircuitBreakerState.CLOSED, breakers.currentState(ScoringService.CIRCUIT_BREAKER));
+        assertTrue(registry.find("circuitbreaker.transitions").counters().isEmpty(), "no breaker changed state");
+        assertNotNull(registry.find("limiter.limit").tag("service", "translation").gauge(), "the limiter ran");
+    }
+}
@@ -0,0 +1,88 @@
+package org.ravenpack.config;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.utils.CacheKey;
+import org.ravenpack.utils.MessageNormalizer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskCacheTierTest {
+
+    private static final CacheKey K1 = MessageNormalizer.key('t', "hola");
+    private static final CacheKey K2 = MessageNormalizer.key('t', "buenos dias");
+    private static final CacheKey K3 = MessageNormalizer.key('s', "hola");
+
+    @Test
+    void entries_survive_restart() throws Exception {
+        Path file = Files.createTempDirectory("disk-cache").resolve("translation.log");
+
+        try (var tier = new DiskCacheTier("test", file, 60_000, 1 << 20)) {
+            tier.put(K1, "hello");
+            tier.put(K2, "good morning");
+            tier.put(K1, "hello again");
+        }
+
+        try (var tier = new DiskCacheTier("test", file, 60_000, 1 << 20)) {
+            assertEquals("hello again", tier.get(K1));
+            assertEquals("good morning", tier.get(K2));
+            assertNull(tier.get(K3));
+            assertTrue(tier.contains(K1));
+            assertFalse(tier.contains(K3));
+        }
+    }
+
+    @Test
+    void expired_entries_are_not_served() throws Exception {
+        Path file = Files.createTempDirectory("disk-cache").resolve("scoring.log");
+
+        try (var tier = new DiskCacheTier("test", file, 0, 1 << 20)) {
+            tier.put(K1, "0.5");
+        }
+        Thread.sleep(5);
+
+        try (var tier = new DiskCacheTier("test", file, 0, 1 << 20)) {
+            assertFalse(tier.contains(K1));
+            assertNull(tier.get(K1));
+        }
+    }
+
+    @Test
+    void torn_tail_is_truncated_on_recovery() throws Exception {
+        Path file = Files.createTempDirectory("disk-cache").resolve("translation.log");
+
+        try (var tier = new DiskCacheTier("test", file, 60_000, 1 << 20)) {
+            tier.put(K1, "hello");
+        }
+        long intact = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+
+        try (var tier = new DiskCacheTier("test", file, 60_000, 1 << 20)) {
+            assertEquals("hello", tier.get(K1));
+        }
+        assertEquals(intact, Files.size(file));
+    }
+
+    @Test
+    void compaction_keeps_log_under_size_cap() throws Exception {
+        Path file = Files.createTempDirectory("disk-cache").resolve("translation.log");
+        long cap = 64 * 1024;
+
+        try (var tier = new DiskCacheTier("test", file, 60_000, cap)) {
+            for (int i = 0; i < 5_000; i++) {
+                tier.put(new CacheKey(i, -i), "value-" + i);
+                if (i % 500 == 0) {
+                    Thread.sleep(20);
+                }
+            }
+        }
+
+        assertTrue(Files.size(file) <= cap, "log should be compacted below the cap");
+        try (var tier = new DiskCacheTier("test", file, 60_000, cap)) {
+            assertTrue(tier.size() > 0);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.ravenpack.dev;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * With {@code dev.stubs.admin.enabled} off, as outside the dev and test profiles, the stubs still
+ * answer but nobody can reconfigure them.
+ */
+@QuarkusTest
+@TestProfile(DevStubAdminDisabledTest.AdminDisabled.class)
+class DevStubAdminDisabledTest {
+
+    public static class AdminDisabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("dev.stubs.admin.enabled", "false");
+        }
+    }
+
+    @Test
+    void admin_endpoints_are_not_found() {
+        RestAssured.when().get("/dev/admin/stubs").then().statusCode(404);
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"distribution\":\"fixed\",\"delayMs\":0,\"errorRate\":1.0}")
+                .when()
+                .put("/dev/admin/stubs/translate")
+                .then()
+                .statusCode(404);
+        RestAssured.when().delete("/dev/admin/stubs").then().statusCode(404);
+        RestAssured.when().get("/dev/score?q=hola").then().statusCode(200);
+    }
+}
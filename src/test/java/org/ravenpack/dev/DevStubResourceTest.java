@@ -0,0 +1,92 @@
+package org.ravenpack.dev;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class DevStubResourceTest {
+
+    private static void configure(String stub, String behavior, int expectedStatus) {
+        RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body(behavior)
+                .when()
+                .put("/dev/admin/stubs/" + stub)
+                .then()
+                .statusCode(expectedStatus);
+    }
+
+    @AfterEach
+    void reset() {
+        RestAssured.when().delete("/dev/admin/stubs").then().statusCode(200);
+    }
+
+    @Test
+    void injects_configured_failures() {
+        configure("translate", "{\"distribution\":\"fixed\",\"delayMs\":0,\"unavailableRate\":1.0}", 200);
+        RestAssured.given().queryParam("q", "hola").when().get("/dev/translate")
+                .then().statusCode(503).header("Retry-After", "1");
+
+        configure("score", "{\"distribution\":\"fixed\",\"delayMs\":0,\"throttleRate\":1.0}", 200);
+        RestAssured.given().queryParam("q", "hola").when().get("/dev/score").then().statusCode(429);
+
+        // Each stub has its own behavior, and a reset restores the defaults
+        configure("score", "{\"distribution\":\"fixed\",\"delayMs\":0}", 200);
+        RestAssured.given().queryParam("q", "hola").when().get("/dev/score").then().statusCode(200);
+        reset();
+        RestAssured.given().queryParam("q", "hola").when().get("/dev/translate")
+                .then().statusCode(200).body(equalTo("hello"));
+    }
+
+    @Test
+    void fixed_latency_is_applied() {
+        configure("translate", "{\"distribution\":\"fixed\",\"delayMs\":300}", 200);
+        RestAssured.given().queryParam("q", "hola").when().get("/dev/translate")
+                .then().statusCode(200)
+                .time(greaterThanOrEqualTo(300L), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void delays_do_not_hold_worker_threads() {
+        configure("score", "{\"distribution\":\"fixed\",\"delayMs\":500}", 200);
+        // Far more concurrent requests than worker threads would sleep through in sequence
+        long start = System.nanoTime();
+        var http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        var calls = IntStream.range(0, 400)
+                .mapToObj(i -> http.sendAsync(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/dev/score?q=m" + i)).build(),
+                        HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        calls.forEach(call -> assertEquals(200, call.join().statusCode()));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 5_000, "400 concurrent 500ms calls took " + millis + "ms");
+    }
+
+    @Test
+    void rejects_invalid_behavior() {
+        configure("translate", "{\"distribution\":\"uniform\",\"minMs\":100,\"maxMs\":10}", 400);
+        configure("translate", "{\"distribution\":\"pareto\"}", 400);
+        configure("translate", "{\"distribution\":\"fixed\",\"errorRate\":2}", 400);
+        configure("nope", "{\"distribution\":\"fixed\"}", 404);
+        RestAssured.when().get("/dev/admin/stubs")
+                .then().statusCode(200)
+                .body("translate.distribution", equalTo("uniform"))
+                .body("translate.maxMs", lessThan(1000));
+    }
+}
@@ -155,4 +155,38 @@ class MetricsTest {
         assertSame(processedCounter, processedMeter);
         assertSame(failedCounter, failedMeter);
     }
+
+    @Test
+    void metrics_cover_stages_caches_and_circuit_breakers() throws Exception {
+        Path in = Files.createTempFile("stage-metrics", ".csv");
+        Path out = Files.createTempFile("stage-metrics-out", ".csv");
+        Files.writeString(in, """
+                user_id,message
+                user1,stage metrics one
+                user2,stage metrics two
+                """);
+
+        processor.process(in.toString(), out.toString());
+
+        var normalize = meterRegistry.find("pipeline.stage")
+                .tags("job", "none", "stage", "normalize").timer();
+        assertNotNull(normalize, "normalize stage timer should be registered");
+        assertTrue(normalize.count() >= 2, "normalize timer should have recorded every row");
+        for (String stage : new String[]{"translation", "scoring", "aggregation", "message"}) {
+            assertNotNull(meterRegistry.find("pipeline.stage").tags("job", "none", "stage", stage).timer(),
+                    stage + " stage timer should be registered");
+        }
+        assertNotNull(meterRegistry.find("pipeline.inflight").tags("job", "none", "service", "scoring").gauge());
+        assertNotNull(meterRegistry.find("pipeline.queue.depth").tag("job", "none").gauge());
+
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "translation").meter(),
+                "translation cache stats should be published");
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "scoring").meter(),
+                "scoring cache stats should be published");
+        assertNotNull(meterRegistry.find("circuitbreaker.state").tag("name", "scoring").gauge(),
+                "circuit breaker state should be published");
+
+        Files.deleteIfExists(in);
+        Files.deleteIfExists(out);
+    }
 }
@@ -0,0 +1,110 @@
+package org.ravenpack.service;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static AdaptiveLimiter limiter(AdaptiveLimiter.Algorithm algorithm, int initial, int maxQueue) {
+        return new AdaptiveLimiter("test", algorithm, initial, 2, 200, maxQueue, 0.9, 1.5, 250);
+    }
+
+    /** Holds {@code n} calls open so the limiter sees itself fully used. */
+    private static List<CompletableFuture<String>> saturate(AdaptiveLimiter limiter, int n) {
+        List<CompletableFuture<String>> open = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            var result = new CompletableFuture<String>();
+            open.add(result);
+            limiter.run(() -> Uni.createFrom().completionStage(result)).subscribe().with(x -> { }, e -> { });
+        }
+        return open;
+    }
+
+    @Test
+    void gradient_grows_while_latency_is_flat_and_shrinks_when_it_rises() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.GRADIENT, 10, 100);
+        saturate(limiter, 10);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(20 * MS, false);
+        }
+        int grown = limiter.limit();
+        assertTrue(grown > 10, "limit should grow with flat latency, was " + grown);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(200 * MS, false);
+        }
+        assertTrue(limiter.limit() < grown, "limit should shrink when latency rises, was " + limiter.limit());
+    }
+
+    @Test
+    void limit_does_not_grow_when_caller_uses_less_than_half() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.AIMD, 40, 100);
+        saturate(limiter, 5);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(20 * MS, false);
+        }
+        assertEquals(40, limiter.limit());
+    }
+
+    @Test
+    void aimd_backs_off_on_errors_and_slow_calls() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.AIMD, 100, 100);
+
+        limiter.sample(0, true);
+        assertEquals(90, limiter.limit());
+        limiter.sample(300 * MS, false);
+        assertEquals(81, limiter.limit());
+    }
+
+    @Test
+    void calls_over_the_limit_wait_and_then_run() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.AIMD, 2, 10);
+        var open = saturate(limiter, 2);
+
+        var queued = limiter.run(() -> Uni.createFrom().item("late")).subscribeAsCompletionStage();
+        assertEquals(2, limiter.inFlight());
+        assertEquals(1, limiter.queued());
+        assertFalse(queued.isDone());
+
+        open.get(0).complete("done");
+        assertEquals("late", queued.toCompletableFuture().join());
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    void calls_are_rejected_once_the_queue_is_full() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.AIMD, 2, 1);
+        saturate(limiter, 3);
+
+        var rejected = limiter.run(() -> Uni.createFrom().item("x"));
+        assertThrows(AdaptiveLimiter.LimitExceededException.class,
+                () -> rejected.await().atMost(Duration.ofSeconds(1)));
+        assertEquals(1, limiter.rejections());
+    }
+
+    @Test
+    void cancelled_waiters_give_up_their_place() {
+        var limiter = limiter(AdaptiveLimiter.Algorithm.AIMD, 1, 10);
+        var open = saturate(limiter, 1);
+
+        var cancelled = limiter.run(() -> Uni.createFrom().item("never")).subscribe().with(x -> fail("ran"));
+        var next = limiter.run(() -> Uni.createFrom().item("next")).subscribeAsCompletionStage();
+        cancelled.cancel();
+
+        open.get(0).complete("done");
+        assertEquals("next", next.toCompletableFuture().join());
+        assertEquals(0, limiter.inFlight());
+    }
+}
@@ -18,4 +18,36 @@ public class AggregationServiceTest {
         assertEquals(0.75, avgU1, 1e-9);
         assertEquals(0.0, avgU2, 1e-9);
     }
+
+    @Test
+    void weighted_add_counts_every_message() {
+        AggregationService agg = new AggregationService();
+        agg.add("u1", 0.9, 3);
+        agg.add("u1", 0.1);
+        List<OutputData> list = (List<OutputData>) agg.snapshot();
+        OutputData u1 = list.get(0);
+        assertEquals(4, u1.totalMessages());
+        assertEquals(0.7, u1.avgScore(), 1e-9);
+    }
+
+    @Test
+    void concurrent_adds_are_not_lost() throws Exception {
+        AggregationService agg = new AggregationService();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    agg.add(i % 2 == 0 ? "popular" : "other", 0.5);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<OutputData> list = (List<OutputData>) agg.snapshot();
+        assertEquals(2, list.size());
+        assertEquals(80_000, list.stream().mapToInt(OutputData::totalMessages).sum());
+        list.forEach(o -> assertEquals(0.5, o.avgScore(), 1e-9));
+    }
 }
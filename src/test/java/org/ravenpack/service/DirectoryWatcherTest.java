@@ -0,0 +1,206 @@
+package org.ravenpack.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.utils.CsvProcessor;
+import org.ravenpack.utils.PipelineProgress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWatcherTest {
+
+    /**
+     * Scores each {@code user;message} line 1.0 if it contains "bad", else 0.0, without any
+     * remote calls. A file starting with "BROKEN" cannot be read. While {@code down} is set,
+     * messages containing "remote" fail like calls to an unavailable service.
+     */
+    static final class FakeProcessor extends CsvProcessor {
+        final AtomicInteger files = new AtomicInteger();
+        final AtomicBoolean down = new AtomicBoolean();
+
+        @Override
+        public void aggregate(Path input, AggregationService agg, PipelineProgress progress) throws Exception {
+            List<String> lines = Files.readAllLines(input);
+            if (!lines.isEmpty() && lines.get(0).startsWith("BROKEN")) {
+                throw new IOException("unreadable");
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                progress.rowRead();
+                String[] fields = line.split(";", 2);
+                if (down.get() && fields[1].contains("remote")) {
+                    progress.failed(1);
+                    continue;
+                }
+                agg.add(fields[0], fields[1].contains("bad") ? 1.0 : 0.0);
+            }
+            files.incrementAndGet();
+        }
+    }
+
+    private static DirectoryWatcher watcher(Path root, FakeProcessor processor) {
+        var watcher = new DirectoryWatcher();
+        watcher.dir = root.resolve("inbox").toString();
+        watcher.pattern = "*.csv";
+        watcher.settleMs = 100;
+        watcher.snapshotIntervalMs = 200;
+        watcher.retryMs = 100;
+        watcher.maxAttempts = 5;
+        watcher.output = root.resolve("out/aggregates.csv").toString();
+        watcher.state = root.resolve("out/state.bin").toString();
+        watcher.outputSort = "user";
+        watcher.processor = processor;
+        watcher.registry = new SimpleMeterRegistry();
+        return watcher;
+    }
+
+    private static void drop(Path root, String name, String content) throws IOException {
+        // Written under another name and renamed, like a well-behaved uploader
+        Path tmp = root.resolve("inbox/" + name + ".part");
+        Files.writeString(tmp, content);
+        Files.move(tmp, root.resolve("inbox/" + name));
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void accumulates_files_and_never_ingests_one_twice() throws Exception {
+        Path root = Files.createTempDirectory("watch");
+        Files.createDirectories(root.resolve("inbox"));
+        // Dropped before the watcher starts
+        drop(root, "a.csv", "user_id;message\nu1;bad thing\nu2;fine\n");
+
+        var processor = new FakeProcessor();
+        var watcher = watcher(root, processor);
+        watcher.start();
+        try {
+            await(() -> watcher.get("u1") != null, "a.csv");
+            drop(root, "b.csv", "user_id;message\nu1;fine\nu3;bad\n");
+            drop(root, "ignored.txt", "user_id;message\nu9;bad\n");
+            drop(root, "broken.csv", "BROKEN\n");
+            await(() -> watcher.get("u3") != null, "b.csv");
+
+            OutputData u1 = watcher.get("u1");
+            assertEquals(2, u1.totalMessages());
+            assertEquals(0.5, u1.avgScore(), 1e-9);
+            assertNull(watcher.get("u9"), "files not matching the pattern are ignored");
+
+            Path output = root.resolve("out/aggregates.csv");
+            await(() -> Files.exists(output), "the snapshot");
+            await(() -> {
+                try {
+                    return Files.readString(output).contains("u3;");
+                } catch (IOException e) {
+                    return false;
+                }
+            }, "a snapshot with b.csv");
+        } finally {
+            watcher.stop();
+        }
+        int ingested = processor.files.get();
+        assertEquals(2, ingested);
+
+        // A restart restores the totals and skips every file in the ledger, including the broken one
+        var restarted = watcher(root, processor);
+        restarted.start();
+        try {
+            drop(root, "c.csv", "user_id;message\nu1;bad\n");
+            await(() -> restarted.get("u1") != null && restarted.get("u1").totalMessages() == 3, "c.csv");
+            assertEquals(ingested + 1, processor.files.get());
+            assertEquals(1, restarted.get("u3").totalMessages());
+            assertEquals(2.0 / 3, restarted.get("u1").avgScore(), 1e-9);
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void file_with_failed_rows_is_retried_and_counted_once() throws Exception {
+        Path root = Files.createTempDirectory("watch");
+        Files.createDirectories(root.resolve("inbox"));
+        var processor = new FakeProcessor();
+        processor.down.set(true);
+        var watcher = watcher(root, processor);
+        watcher.start();
+        try {
+            drop(root, "partial.csv", "user_id;message\nu1;bad local\nu1;bad remote\nu2;fine remote\n");
+            var retried = watcher.registry.counter("watch.files", "result", "retried");
+            await(() -> retried.count() >= 2, "two failed attempts");
+            assertNull(watcher.get("u1"), "nothing of a file with failed rows is counted");
+
+            processor.down.set(false);
+            await(() -> watcher.get("u2") != null, "the retry after the service recovered");
+            OutputData u1 = watcher.get("u1");
+            assertEquals(2, u1.totalMessages(), "the rows of earlier attempts are not counted again");
+            assertEquals(1.0, u1.avgScore(), 1e-9);
+            assertEquals(1, watcher.registry.counter("watch.files", "result", "ingested").count(), 0.0);
+        } finally {
+            watcher.stop();
+        }
+
+        // Only the complete ingestion went into the ledger, so a restart does not retry it
+        var restarted = watcher(root, processor);
+        int files = processor.files.get();
+        restarted.start();
+        try {
+            drop(root, "next.csv", "user_id;message\nu3;fine\n");
+            await(() -> restarted.get("u3") != null, "next.csv");
+            assertEquals(files + 1, processor.files.get());
+            assertEquals(2, restarted.get("u1").totalMessages());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void rows_that_keep_failing_do_not_hold_back_the_rest_of_the_file() throws Exception {
+        Path root = Files.createTempDirectory("watch");
+        Files.createDirectories(root.resolve("inbox"));
+        var processor = new FakeProcessor();
+        processor.down.set(true);
+        var watcher = watcher(root, processor);
+        watcher.maxAttempts = 2;
+        watcher.start();
+        try {
+            drop(root, "stuck.csv", "user_id;message\nu1;bad local\nu1;bad remote\nu2;fine remote\n");
+            await(() -> watcher.get("u1") != null, "the file after its last attempt");
+            assertEquals(1, watcher.get("u1").totalMessages(), "the rows that were scored are counted");
+            assertNull(watcher.get("u2"));
+            assertEquals(2, processor.files.get());
+            assertEquals(1, watcher.registry.counter("watch.files", "result", "retried").count(), 0.0);
+            assertEquals(1, watcher.registry.counter("watch.files", "result", "partial").count(), 0.0);
+            assertEquals(2, watcher.registry.counter("watch.rows.failed").count(), 0.0);
+        } finally {
+            watcher.stop();
+        }
+
+        // In the ledger like any ingested file, so the service recovering does not bring it back
+        processor.down.set(false);
+        var restarted = watcher(root, processor);
+        restarted.start();
+        try {
+            drop(root, "next.csv", "user_id;message\nu3;fine\n");
+            await(() -> restarted.get("u3") != null, "next.csv");
+            assertEquals(3, processor.files.get());
+            assertEquals(1, restarted.get("u1").totalMessages());
+        } finally {
+            restarted.stop();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.ravenpack.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.http.DelayDistribution;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgerTest {
+
+    private static final long FAST_MS = 5;
+    private static final long SLOW_MS = 600;
+
+    static WireMockServer wm;
+    static HttpClient http;
+
+    @BeforeAll
+    static void start() {
+        wm = new WireMockServer(wireMockConfig().dynamicPort());
+        wm.start();
+        // Bimodal backend: 90% of calls are fast, the rest hit a long tail
+        DelayDistribution bimodal = () -> ThreadLocalRandom.current().nextDouble() < 0.9 ? FAST_MS : SLOW_MS;
+        wm.stubFor(get(urlPathEqualTo("/score"))
+                .willReturn(aResponse()
+                        .withRandomDelay(bimodal)
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("0.5")));
+        wm.stubFor(get(urlPathEqualTo("/fail"))
+                .willReturn(aResponse().withStatus(503)));
+        http = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (wm != null) wm.stop();
+    }
+
+    private static Uni<String> request(String path) {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + wm.port() + path)).build();
+        return Uni.createFrom().completionStage(() -> http.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .map(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    return response.body();
+                });
+    }
+
+    private static List<Long> timedCalls(Hedger hedger, int calls) {
+        List<Long> millis = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            assertEquals("0.5", hedger.call(() -> request("/score")).await().atMost(Duration.ofSeconds(5)));
+            millis.add((System.nanoTime() - start) / 1_000_000);
+        }
+        return millis;
+    }
+
+    @Test
+    void hedging_cuts_the_slow_mode_within_budget() {
+        var hedger = new Hedger("test", 0.85, 0.2, 10, 256, 50);
+        // Learn the latency distribution; hedging starts after 50 samples
+        timedCalls(hedger, 60);
+        assertTrue(hedger.delayMillis() > 0 && hedger.delayMillis() < SLOW_MS,
+                "hedge delay should fall between the modes, was " + hedger.delayMillis());
+        long hedgesBefore = hedger.hedges();
+
+        List<Long> latencies = timedCalls(hedger, 100);
+
+        long slow = latencies.stream().filter(ms -> ms >= SLOW_MS).count();
+        // Without hedging about 10 calls would be slow; a hedged call is only slow if both copies are
+        assertTrue(slow <= 4, "too many slow calls despite hedging: " + slow);
+        long hedges = hedger.hedges() - hedgesBefore;
+        assertTrue(hedges > 0, "expected some hedges");
+        // Budget: 0.2 tokens per call over 160 calls, plus the burst allowance
+        assertTrue(hedger.hedges() <= 160 * 0.2 + 10, "hedges exceeded the budget: " + hedger.hedges());
+        assertTrue(hedger.wins() > 0, "expected some hedges to answer first");
+    }
+
+    @Test
+    void no_hedges_without_budget() {
+        var hedger = new Hedger("test", 0.5, 0.0, 1, 16, 16);
+        timedCalls(hedger, 40);
+        assertEquals(0, hedger.hedges());
+    }
+
+    @Test
+    void failure_is_reported_when_no_copy_succeeds() {
+        var hedger = new Hedger("test", 0.5, 1.0, 1, 16, 1);
+        var error = assertThrows(IllegalStateException.class,
+                () -> hedger.call(() -> request("/fail")).await().atMost(Duration.ofSeconds(5)));
+        assertEquals("HTTP 503", error.getMessage());
+        // The first call recorded a sample, so the next one may hedge; both copies fail
+        error = assertThrows(IllegalStateException.class,
+                () -> hedger.call(() -> request("/fail")).await().atMost(Duration.ofSeconds(5)));
+        assertEquals("HTTP 503", error.getMessage());
+    }
+
+    @Test
+    void failed_primary_is_hedged_at_once_or_reported_without_waiting_for_the_delay() {
+        // A minimum delay far above the test's patience: any wait for it shows
+        var hedger = new Hedger("test", 0.5, 1.0, 5_000, 16, 1);
+        assertEquals("warm", hedger.call(() -> Uni.createFrom().item("warm")).await().indefinitely());
+        assertEquals(5_000, hedger.delayMillis());
+
+        var calls = new AtomicInteger();
+        long start = System.nanoTime();
+        String result = hedger.call(() -> calls.getAndIncrement() == 0
+                        ? Uni.createFrom().<String>failure(new IllegalStateException("HTTP 503"))
+                        : Uni.createFrom().item("0.5"))
+                .await().atMost(Duration.ofSeconds(2));
+        assertEquals("0.5", result);
+        assertEquals(1, hedger.hedges());
+        assertEquals(1, hedger.wins());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1_000, "the hedge should not wait for the delay");
+
+        var broke = new Hedger("test", 0.5, 0.0, 5_000, 16, 1);
+        broke.call(() -> Uni.createFrom().item("warm")).await().indefinitely();
+        long failedAt = System.nanoTime();
+        var error = assertThrows(IllegalStateException.class,
+                () -> broke.call(() -> Uni.createFrom().<String>failure(new IllegalStateException("HTTP 503")))
+                        .await().atMost(Duration.ofSeconds(2)));
+        assertEquals("HTTP 503", error.getMessage());
+        assertEquals(0, broke.hedges());
+        assertTrue((System.nanoTime() - failedAt) / 1_000_000 < 1_000, "without budget the failure is reported at once");
+    }
+}
@@ -0,0 +1,82 @@
+package org.ravenpack.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.JobStatus;
+import org.ravenpack.model.JobStatus.State;
+import org.ravenpack.utils.CsvProcessorModesTest.StubScoring;
+import org.ravenpack.utils.CsvProcessorModesTest.StubTranslation;
+import org.ravenpack.utils.CsvProcessorResumeTest.BreakingScoring;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.ravenpack.utils.CsvProcessorModesTest.*;
+import static org.ravenpack.utils.CsvProcessorResumeTest.checkpointed;
+
+/**
+ * Fails a checkpointed job halfway, the way the jobs endpoint runs it (a temp file named at
+ * random), and resumes it through {@link JobService#resume(String)}.
+ */
+class JobServiceResumeTest {
+
+    private static final int ROWS = 3000;
+
+    private static JobStatus awaitFinished(JobService jobs, String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        JobStatus status = jobs.status(id).orElseThrow();
+        while (!status.finished()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for job " + id + ", still " + status.state());
+            }
+            Thread.sleep(20);
+            status = jobs.status(id).orElseThrow();
+        }
+        return status;
+    }
+
+    @Test
+    void failed_job_resumes_from_its_checkpoint() throws Exception {
+        Path in = input(ROWS);
+        Map<String, double[]> expected = run(processor(new StubTranslation(), new StubScoring()), in);
+
+        Path checkpoints = Files.createTempDirectory("job-checkpoints");
+        var scoring = new BreakingScoring(ROWS / 2);
+        var jobs = new JobService();
+        jobs.processor = checkpointed(scoring, checkpoints);
+        jobs.registry = new SimpleMeterRegistry();
+        jobs.workers = 1;
+        jobs.queueLimit = 1;
+        jobs.retentionSeconds = 3600;
+        jobs.init();
+        try {
+            Path upload = Files.createTempFile("job-input-", ".csv");
+            Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            String id = jobs.submit(upload, Files.createTempDirectory("job-out")).id();
+
+            assertEquals(State.FAILED, awaitFinished(jobs, id).state());
+            assertTrue(Files.exists(upload), "a failed job keeps its input");
+            assertEquals(1, Files.list(checkpoints).count(), "and its checkpoint");
+            assertTrue(jobs.resume("unknown").isEmpty());
+
+            scoring.breakAt = Integer.MAX_VALUE;
+            int scoredBefore = scoring.calls.get();
+            assertEquals(State.QUEUED, jobs.resume(id).orElseThrow().state());
+            JobStatus done = awaitFinished(jobs, id);
+
+            assertEquals(State.SUCCEEDED, done.state());
+            assertEquals(ROWS, done.processed());
+            int rescored = scoring.calls.get() - scoredBefore;
+            assertTrue(rescored > 0 && rescored < ROWS, "only rows after the checkpoint are scored again: " + rescored);
+            assertSameResults(expected, results(jobs.resultFiles(id).orElseThrow().get(0)), "resumed job");
+            assertFalse(Files.exists(upload), "the input goes once the job succeeded");
+            assertEquals(0, Files.list(checkpoints).count(), "and so does the checkpoint");
+            assertThrows(IllegalStateException.class, () -> jobs.resume(id));
+        } finally {
+            jobs.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.ravenpack.service;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoringBatcherTest {
+
+    @Test
+    void full_batch_is_sent_in_one_call() {
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        try (var batcher = new ScoringBatcher(texts -> {
+            calls.add(texts);
+            return Uni.createFrom().item(texts.stream().map(t -> t.length() / 10.0).toList());
+        }, 3, Duration.ofSeconds(10))) {
+            var a = batcher.submit("a").subscribeAsCompletionStage();
+            var bb = batcher.submit("bb").subscribeAsCompletionStage();
+            var ccc = batcher.submit("ccc").subscribeAsCompletionStage();
+
+            assertEquals(0.1, a.join(), 1e-9);
+            assertEquals(0.2, bb.join(), 1e-9);
+            assertEquals(0.3, ccc.join(), 1e-9);
+            assertEquals(List.of(List.of("a", "bb", "ccc")), calls);
+        }
+    }
+
+    @Test
+    void partial_batch_is_flushed_after_linger() {
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        try (var batcher = new ScoringBatcher(texts -> {
+            calls.add(texts);
+            return Uni.createFrom().item(texts.stream().map(t -> 0.5).toList());
+        }, 100, Duration.ofMillis(20))) {
+            Double score = batcher.submit("hello").await().atMost(Duration.ofSeconds(5));
+
+            assertEquals(0.5, score, 1e-9);
+            assertEquals(List.of(List.of("hello")), calls);
+        }
+    }
+
+    @Test
+    void batch_failure_fails_every_caller() {
+        try (var batcher = new ScoringBatcher(
+                texts -> Uni.createFrom().failure(new RuntimeException("scorer down")), 2, Duration.ofSeconds(10))) {
+            var a = batcher.submit("a").subscribeAsCompletionStage();
+            var b = batcher.submit("b").subscribeAsCompletionStage();
+
+            assertThrows(Exception.class, a::join);
+            assertThrows(Exception.class, b::join);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.ravenpack.service;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.OutputData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWindowsTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+
+    private static OutputData find(List<OutputData> list, String userId) {
+        return list.stream().filter(r -> r.userId().equals(userId)).findFirst().orElse(null);
+    }
+
+    @Test
+    void tumbling_window_covers_the_window_holding_the_latest_row() {
+        var windows = new TimeWindows(TimeWindows.Mode.TUMBLING, Duration.ofHours(1), 60);
+        windows.add("u1", 1.0, 1, 10 * MINUTE);
+        windows.add("u1", 0.0, 1, HOUR + 5 * MINUTE);
+        windows.add("u1", 0.5, 1, HOUR + 50 * MINUTE);
+        windows.add("u2", 1.0, 1, 20 * MINUTE);
+
+        List<OutputData> list = windows.snapshot();
+        OutputData u1 = find(list, "u1");
+        assertEquals(2, u1.totalMessages());
+        assertEquals(0.25, u1.avgScore(), 1e-9);
+        assertNull(find(list, "u2"), "u2 only has rows in the previous window");
+    }
+
+    @Test
+    void sliding_window_drops_buckets_as_it_moves() {
+        var windows = new TimeWindows(TimeWindows.Mode.SLIDING, Duration.ofHours(1), 60);
+        windows.add("u1", 1.0, 2, 0);
+        windows.add("u1", 0.0, 1, 30 * MINUTE);
+        assertEquals(3, windows.get("u1").totalMessages());
+
+        // 61 minutes in, the rows of minute 0 are out of the window but those of minute 30 are not
+        windows.add("u2", 0.0, 1, 61 * MINUTE);
+        OutputData u1 = windows.get("u1");
+        assertEquals(1, u1.totalMessages());
+        assertEquals(0.0, u1.avgScore(), 1e-9);
+
+        // Minute 90 reuses the slot of minute 30, and a late row for minute 30 is then ignored
+        windows.add("u1", 1.0, 1, 90 * MINUTE);
+        windows.add("u1", 0.0, 1, 30 * MINUTE);
+        u1 = windows.get("u1");
+        assertEquals(1, u1.totalMessages());
+        assertEquals(1.0, u1.avgScore(), 1e-9);
+    }
+
+    @Test
+    void expired_users_are_evicted_on_snapshot() {
+        var windows = new TimeWindows(TimeWindows.Mode.SLIDING, Duration.ofMinutes(10), 10);
+        for (int i = 0; i < 1000; i++) {
+            windows.add("old" + i, 0.5, 1, i);
+        }
+        windows.add("new", 0.5, 1, HOUR);
+        assertEquals(1001, windows.users());
+
+        List<OutputData> list = windows.snapshot();
+        assertEquals(1, list.size());
+        assertEquals(1, windows.users());
+
+        // An evicted user starts over with a fresh ring
+        windows.add("old1", 1.0, 1, HOUR);
+        assertEquals(1.0, windows.get("old1").avgScore(), 1e-9);
+    }
+
+    @Test
+    void concurrent_adds_and_snapshots_are_not_lost() throws Exception {
+        var windows = new TimeWindows(TimeWindows.Mode.SLIDING, Duration.ofHours(1), 60);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    windows.add(i % 2 == 0 ? "popular" : "user" + (i % 100), 0.5, 1, (i % 60) * MINUTE);
+                    if (i % 1000 == 0) {
+                        windows.snapshot();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, windows.get("popular").totalMessages());
+        int total = windows.snapshot().stream().mapToInt(OutputData::totalMessages).sum();
+        assertEquals(80_000, total);
+    }
+
+    @Test
+    void aggregation_service_reports_window_totals_when_windowed() {
+        var agg = new AggregationService(new TimeWindows(TimeWindows.Mode.TUMBLING, Duration.ofHours(1), 1));
+        agg.add("u1", 1.0, 1, 0);
+        agg.add("u1", 0.0, 1, 2 * HOUR);
+        assertTrue(agg.windowed());
+        assertEquals(1, agg.get("u1").totalMessages());
+        assertEquals(0.0, agg.get("u1").avgScore(), 1e-9);
+    }
+
+    @Test
+    void rejects_a_sliding_window_that_does_not_split_evenly() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimeWindows(TimeWindows.Mode.SLIDING, Duration.ofMillis(100), 7));
+        assertNull(TimeWindows.parseMode("none"));
+        assertNull(TimeWindows.parseMode(null));
+        assertEquals(TimeWindows.Mode.SLIDING, TimeWindows.parseMode(" Sliding "));
+    }
+
+    @Test
+    void parses_common_timestamp_formats() {
+        Instant expected = Instant.parse("2024-05-01T10:15:30Z");
+        assertEquals(expected, TimeWindows.parseTimestamp("2024-05-01T10:15:30Z"));
+        assertEquals(expected, TimeWindows.parseTimestamp("2024-05-01T12:15:30+02:00"));
+        assertEquals(expected, TimeWindows.parseTimestamp("2024-05-01 10:15:30"));
+        assertEquals(expected, TimeWindows.parseTimestamp("1714558530"));
+        assertEquals(expected, TimeWindows.parseTimestamp("1714558530000"));
+        assertNull(TimeWindows.parseTimestamp(""));
+        assertNull(TimeWindows.parseTimestamp("yesterday"));
+    }
+}
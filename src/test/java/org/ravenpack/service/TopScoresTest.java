@@ -0,0 +1,95 @@
+package org.ravenpack.service;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.OutputData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopScoresTest {
+
+    @Test
+    void ranking_matches_a_full_sort_of_the_totals() {
+        var top = new TopScores(3);
+        var agg = new AggregationService();
+        agg.track(top);
+        var random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            agg.add("u" + random.nextInt(2_000), random.nextDouble(), 1 + random.nextInt(2));
+        }
+
+        List<OutputData> expected = new ArrayList<>();
+        agg.snapshot().forEach(r -> {
+            if (r.totalMessages() >= 3) {
+                expected.add(r);
+            }
+        });
+        expected.sort(Comparator.comparingDouble(OutputData::avgScore).reversed()
+                .thenComparing(OutputData::userId));
+
+        List<OutputData> actual = top.top(25);
+        assertEquals(25, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(expected.get(i).userId(), actual.get(i).userId());
+            assertEquals(expected.get(i).totalMessages(), actual.get(i).totalMessages());
+            assertEquals(expected.get(i).avgScore(), actual.get(i).avgScore(), 1e-9);
+        }
+    }
+
+    @Test
+    void users_below_the_minimum_are_not_ranked_until_they_reach_it() {
+        var top = new TopScores(2);
+        top.add("loud", 1, 1.0);
+        top.add("steady", 2, 1.2);
+        assertEquals(List.of("steady"), top.top(10).stream().map(OutputData::userId).toList());
+
+        // A second, harmless message ranks "loud" and moves it below "steady"
+        top.add("loud", 1, 0.0);
+        List<OutputData> ranking = top.top(10);
+        assertEquals(List.of("steady", "loud"), ranking.stream().map(OutputData::userId).toList());
+        assertEquals(0.5, ranking.get(1).avgScore(), 1e-9);
+        assertEquals(1, top.top(1).size());
+    }
+
+    @Test
+    void restored_totals_are_ranked() {
+        var top = new TopScores(1);
+        var agg = new AggregationService();
+        agg.track(top);
+        agg.restore("u1", 4, 3.6);
+        agg.add("u2", 0.5);
+        OutputData first = top.top(1).get(0);
+        assertEquals("u1", first.userId());
+        assertEquals(0.9, first.avgScore(), 1e-9);
+    }
+
+    @Test
+    void concurrent_adds_leave_one_consistent_place_per_user() throws Exception {
+        var top = new TopScores(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    top.add("u" + random.nextInt(50), 1, 0.5);
+                    if (i % 500 == 0) {
+                        top.top(10);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<OutputData> ranking = top.top(100);
+        assertEquals(50, ranking.size());
+        assertEquals(160_000, ranking.stream().mapToInt(OutputData::totalMessages).sum());
+        ranking.forEach(r -> assertEquals(0.5, r.avgScore(), 1e-9));
+    }
+}
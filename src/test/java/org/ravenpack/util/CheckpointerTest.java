@@ -0,0 +1,160 @@
+package org.ravenpack.util;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.service.AggregationService;
+import org.ravenpack.utils.Checkpointer;
+import org.ravenpack.utils.PipelineProgress;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointerTest {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    @Test
+    void only_contiguous_rows_are_committed() throws Exception {
+        Path dir = Files.createTempDirectory("ckpt");
+        Path file = Checkpointer.fileFor(dir, "input-a");
+        var agg = new AggregationService();
+        var checkpointer = new Checkpointer(file, "input-a", NEVER, agg);
+
+        checkpointer.completed(0, Map.of("u1", 1), 0.5);
+        checkpointer.completed(2, Map.of("u2", 1), 1.0);
+        checkpointer.failed(3);
+        // Row 1 is still in flight, so rows 2 and 3 wait
+        assertEquals(1, totals(agg).get("u1").totalMessages());
+        assertNull(totals(agg).get("u2"));
+        checkpointer.writeNow();
+
+        var restored = new AggregationService();
+        var progress = new PipelineProgress();
+        long skip = new Checkpointer(file, "input-a", NEVER, restored).resume(progress);
+        assertEquals(1, skip);
+        assertEquals(1, progress.processed());
+        assertEquals(Map.of("u1", new OutputData("u1", 1, 0.5)), totals(restored));
+
+        checkpointer.completed(1, Map.of("u1", 1), 0.0);
+        assertEquals(2, totals(agg).get("u1").totalMessages());
+        assertEquals(1, totals(agg).get("u2").totalMessages());
+    }
+
+    @Test
+    void resumed_run_matches_uninterrupted_run() throws Exception {
+        int rows = 5_000;
+        var random = new Random(11);
+        String[] users = new String[rows];
+        double[] scores = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            users[i] = "u" + random.nextInt(50);
+            scores[i] = random.nextInt(1000) / 1000.0;
+        }
+
+        // First run completes rows in a shuffled order and "crashes" half way through
+        Path dir = Files.createTempDirectory("ckpt");
+        Path file = Checkpointer.fileFor(dir, "input-b");
+        var first = new Checkpointer(file, "input-b", NEVER, new AggregationService());
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order.subList(0, rows / 2), random);
+        for (int row : order.subList(0, rows / 2)) {
+            if (row % 97 == 0) {
+                first.failed(row);
+            } else {
+                first.completed(row, Map.of(users[row], 1), scores[row]);
+            }
+        }
+        first.writeNow();
+
+        // Second run resumes and processes what is left
+        var agg = new AggregationService();
+        var resumed = new Checkpointer(file, "input-b", NEVER, agg);
+        long skip = resumed.resume(new PipelineProgress());
+        assertEquals(rows / 2, skip);
+        for (int row = (int) skip; row < rows; row++) {
+            if (row % 97 == 0) {
+                resumed.failed(row);
+            } else {
+                resumed.completed(row, Map.of(users[row], 1), scores[row]);
+            }
+        }
+
+        var expected = new AggregationService();
+        for (int i = 0; i < rows; i++) {
+            if (i % 97 != 0) {
+                expected.add(users[i], scores[i]);
+            }
+        }
+        Map<String, OutputData> actual = totals(agg);
+        totals(expected).forEach((user, e) -> {
+            assertEquals(e.totalMessages(), actual.get(user).totalMessages());
+            assertEquals(e.avgScore(), actual.get(user).avgScore(), 1e-9);
+        });
+        assertEquals(totals(expected).keySet(), actual.keySet());
+
+        resumed.delete();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void rows_completed_concurrently_are_all_committed() throws Exception {
+        int rows = 20_000;
+        var agg = new AggregationService();
+        Path file = Files.createTempDirectory("ckpt").resolve("c.ckpt");
+        var checkpointer = new Checkpointer(file, "input-c", NEVER, agg);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(5));
+        // Completions race each other like the pipeline's do; none may be left uncommitted
+        var pool = Executors.newFixedThreadPool(8);
+        try {
+            var done = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; t++) {
+                List<Integer> share = order.subList(t * rows / 8, (t + 1) * rows / 8);
+                done.add(pool.submit(() -> share.forEach(
+                        row -> checkpointer.completed(row, Map.of("u" + row % 10, 1), 1.0))));
+            }
+            for (Future<?> f : done) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long total = totals(agg).values().stream().mapToLong(OutputData::totalMessages).sum();
+        assertEquals(rows, total);
+    }
+
+    @Test
+    void checkpoint_for_another_input_is_ignored() throws Exception {
+        Path dir = Files.createTempDirectory("ckpt");
+        Path file = dir.resolve("shared.ckpt");
+        var checkpointer = new Checkpointer(file, "old-input", NEVER, new AggregationService());
+        checkpointer.completed(0, Map.of("u1", 1), 0.5);
+        checkpointer.writeNow();
+
+        var agg = new AggregationService();
+        assertEquals(0, new Checkpointer(file, "new-input", NEVER, agg).resume(new PipelineProgress()));
+        assertTrue(totals(agg).isEmpty());
+    }
+
+    private static Map<String, OutputData> totals(AggregationService agg) {
+        Map<String, OutputData> byUser = new TreeMap<>();
+        agg.snapshot().forEach(o -> byUser.put(o.userId(), o));
+        return byUser;
+    }
+}
@@ -0,0 +1,118 @@
+package org.ravenpack.util;
+
+import com.univocity.parsers.common.record.Record;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.utils.ParallelCsvReader;
+import org.ravenpack.utils.PipelineProgress;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvReaderTest {
+
+    @Test
+    void chunks_respect_quoted_multiline_messages() throws Exception {
+        Path file = Files.createTempFile("parallel", ".csv");
+        List<String> expected = new ArrayList<>();
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("user_id;message\n");
+            for (int i = 0; i < 20_000; i++) {
+                String message = switch (i % 4) {
+                    case 0 -> "plain message " + i;
+                    case 1 -> "first line " + i + "\nsecond line; with delimiter";
+                    case 2 -> "she said \"hola\" " + i + "\n\nand left";
+                    default -> "ünïcödé 🌟 " + i;
+                };
+                String user = "u" + (i % 37);
+                expected.add(user + "|" + message);
+                boolean quote = i % 4 != 0;
+                w.write(user + ";" + (quote ? "\"" + message.replace("\"", "\"\"") + "\"" : message) + "\n");
+            }
+        }
+
+        var reader = ParallelCsvReader.plan(file, 16).orElseThrow();
+        assertTrue(reader.chunkCount() > 1, "Expected the file to be split");
+
+        var progress = new PipelineProgress();
+        List<Record> records = reader.records(4, progress).collect().asList().await().indefinitely();
+        List<String> actual = new ArrayList<>();
+        for (Record rec : records) {
+            actual.add(rec.getString("user_id") + "|" + rec.getString("message"));
+        }
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertEquals(Files.size(file) - "user_id;message\n".length(), progress.bytesRead());
+    }
+
+    @Test
+    void comma_delimited_files_are_detected() throws Exception {
+        Path file = Files.createTempFile("parallel-comma", ".csv");
+        var csv = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < 50_000; i++) {
+            csv.append("user").append(i).append(",\"hello, world ").append(i).append("\"\n");
+        }
+        Files.writeString(file, csv.toString());
+
+        var reader = ParallelCsvReader.plan(file, 8).orElseThrow();
+        List<Record> records = reader.records(8, new PipelineProgress()).collect().asList().await().indefinitely();
+
+        assertEquals(50_000, records.size());
+        assertTrue(records.stream().allMatch(r -> r.getString("message").startsWith("hello, world ")));
+    }
+
+    @Test
+    void bare_quote_in_unquoted_field_is_parsed_like_the_sequential_reader() throws Exception {
+        Path file = Files.createTempFile("parallel-bare-quote", ".csv");
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("user_id;message\n");
+            for (int i = 0; i < 20_000; i++) {
+                String message = switch (i % 3) {
+                    // The parser keeps a quote inside an unquoted field as text, but it flips the quote parity
+                    case 0 -> i == 30 ? "a 5\" screen " + i : "plain message " + i;
+                    case 1 -> "\"first line " + i + "\nsecond line; with delimiter\"";
+                    default -> "\"she said \"\"hola\"\" " + i + "\"";
+                };
+                w.write("u" + (i % 37) + ";" + message + "\n");
+            }
+        }
+
+        var settings = new CsvParserSettings();
+        settings.setHeaderExtractionEnabled(true);
+        settings.setLineSeparatorDetectionEnabled(true);
+        settings.setSkipEmptyLines(true);
+        settings.trimValues(true);
+        settings.setDelimiterDetectionEnabled(true, ',', ';');
+        List<String> expected = new ArrayList<>();
+        for (Record rec : new CsvParser(settings).parseAllRecords(file.toFile(), StandardCharsets.UTF_8.name())) {
+            expected.add(rec.getString("user_id") + "|" + rec.getString("message"));
+        }
+        assertTrue(expected.contains("u30|a 5\" screen 30"));
+
+        // What CsvProcessor parses: the chunks when the file can be split, else the file sequentially
+        Optional<ParallelCsvReader> plan = ParallelCsvReader.plan(file, 16);
+        List<String> actual = new ArrayList<>(expected);
+        if (plan.isPresent()) {
+            actual.clear();
+            for (Record rec : plan.get().records(4, new PipelineProgress()).collect().asList().await().indefinitely()) {
+                actual.add(rec.getString("user_id") + "|" + rec.getString("message"));
+            }
+        }
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertTrue(plan.isEmpty(), "Expected the stray quote to keep the file from being split");
+    }
+}
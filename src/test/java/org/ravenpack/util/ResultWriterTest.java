@@ -0,0 +1,96 @@
+package org.ravenpack.util;
+
+import org.junit.jupiter.api.Test;
+import org.ravenpack.model.OutputData;
+import org.ravenpack.utils.ResultWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultWriterTest {
+
+    @Test
+    void single_file_matches_string_format_output() throws Exception {
+        var random = new Random(7);
+        List<OutputData> results = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            int count = 1 + random.nextInt(20);
+            double score = switch (i % 4) {
+                case 0 -> random.nextDouble();
+                case 1 -> random.nextInt(count * 1000 + 1) / (count * 1000.0);
+                case 2 -> random.nextInt(2_000_001) / 2e6;
+                default -> -random.nextDouble();
+            };
+            results.add(new OutputData((i % 100 == 0 ? "usuário" : "u") + i, count, score));
+        }
+        results.add(new OutputData("edge-neg-zero", 1, -0.0));
+        results.add(new OutputData("edge-half-ulp", 1, 0.0000005));
+        results.add(new OutputData("edge-nan", 1, Double.NaN));
+        results.add(new OutputData("edge-large", 1, 1e12 + 0.25));
+
+        var expected = new StringBuilder("user_id;total_messages;avg_score").append(System.lineSeparator());
+        for (OutputData o : results) {
+            expected.append(o.userId()).append(';').append(o.totalMessages()).append(';')
+                    .append(String.format(Locale.US, "%.6f", o.avgScore())).append(System.lineSeparator());
+        }
+
+        Path out = Files.createTempFile("results", ".csv");
+        // A small buffer exercises the flush path many times
+        List<Path> files = new ResultWriter(1, ResultWriter.Sort.NONE, 4096).write(results, out);
+
+        assertEquals(List.of(out), files);
+        assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(out));
+    }
+
+    @Test
+    void partitions_cover_every_user_once_and_are_sorted() throws Exception {
+        List<OutputData> results = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            results.add(new OutputData("user" + i, 1 + i % 7, (i * 37 % 1000) / 1000.0));
+        }
+
+        Path dir = Files.createTempDirectory("partitions");
+        List<Path> files = new ResultWriter(4, ResultWriter.Sort.SCORE, 1 << 16).write(results, dir.resolve("out.csv"));
+
+        assertEquals(4, files.size());
+        assertEquals("out.part-00.csv", files.get(0).getFileName().toString());
+        Set<String> seen = new HashSet<>();
+        for (Path file : files) {
+            List<String> lines = Files.readAllLines(file);
+            assertEquals("user_id;total_messages;avg_score", lines.get(0));
+            double previous = Double.POSITIVE_INFINITY;
+            for (String line : lines.subList(1, lines.size())) {
+                String[] cols = line.split(";");
+                assertTrue(seen.add(cols[0]), "Duplicate user " + cols[0]);
+                double score = Double.parseDouble(cols[2]);
+                assertTrue(score <= previous, "Not sorted by descending score in " + file);
+                previous = score;
+            }
+        }
+        assertEquals(results.size(), seen.size());
+    }
+
+    @Test
+    void sorts_by_user_id() throws Exception {
+        List<OutputData> results = List.of(
+                new OutputData("carol", 1, 0.1),
+                new OutputData("alice", 2, 0.2),
+                new OutputData("bob", 3, 0.3));
+
+        Path out = Files.createTempFile("sorted", ".csv");
+        new ResultWriter(1, ResultWriter.parseSort("user"), 4096).write(results, out);
+
+        List<String> lines = Files.readAllLines(out);
+        assertEquals(List.of("user_id;total_messages;avg_score",
+                "alice;2;0.200000", "bob;3;0.300000", "carol;1;0.100000"), lines);
+    }
+}
@@ -0,0 +1,163 @@
+package org.ravenpack.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.junit.jupiter.api.Test;
+import org.ravenpack.service.ScoringService;
+import org.ravenpack.service.TranslationService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the whole pipeline against in-process service stubs and checks that dedup mode, skipping
+ * English messages and parallel parsing all give the same per-user results as plain row mode.
+ */
+public class CsvProcessorModesTest {
+
+    private static final int ROWS = 3000;
+
+    // The same messages with different case, spacing, punctuation and accents
+    private static final List<String> MESSAGES = List.of(
+            "Hola amigo", "  hóla   AMIGO ", "eres muy malo!!!", "Eres muy  malo !!!",
+            "this is a really bad message from you", "This is a really BAD message from you",
+            "thanks for the help with the report", "gracias por todo", "Gracias  por todo",
+            "you are the worst person in the whole team", "no me gusta nada", "¿Qué tal estás?");
+
+    /** Translates a couple of Spanish words and leaves everything else as it is. */
+    public static final class StubTranslation extends TranslationService {
+        public final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean callsRemote(String text) {
+            return false;
+        }
+
+        @Override
+        public Uni<String> toEnglish(String text) {
+            calls.incrementAndGet();
+            String english = MessageNormalizer.normalize(text).replace("hola", "hello").replace("malo", "bad");
+            return Uni.createFrom().item(english).emitOn(Infrastructure.getDefaultWorkerPool());
+        }
+    }
+
+    /** Scores a text by the hash of its normalized form, so equal texts always score the same. */
+    public static class StubScoring extends ScoringService {
+        public final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean callsRemote(String text) {
+            return false;
+        }
+
+        @Override
+        public Uni<Double> score(String text) {
+            calls.incrementAndGet();
+            double score = Math.abs(MessageNormalizer.normalize(text).hashCode() % 1000) / 1000.0;
+            return Uni.createFrom().item(score).emitOn(Infrastructure.getDefaultWorkerPool());
+        }
+    }
+
+    public static CsvProcessor processor(StubTranslation translation, StubScoring scoring) {
+        var processor = new CsvProcessor();
+        processor.translation = translation;
+        processor.scoring = scoring;
+        processor.translationConcurrency = 8;
+        processor.scoringConcurrency = 8;
+        processor.dedupEnabled = false;
+        processor.skipEnglish = false;
+        processor.windowMode = "none";
+        processor.outputPartitions = 1;
+        processor.outputSort = "user";
+        processor.outputBufferBytes = 1 << 16;
+        processor.parseThreads = 1;
+        processor.parseMinBytes = Long.MAX_VALUE;
+        processor.checkpointEnabled = false;
+        processor.registry = new SimpleMeterRegistry();
+        return processor;
+    }
+
+    public static Path input(int rows) throws Exception {
+        var random = new Random(7);
+        var csv = new StringBuilder("user_id,message\n");
+        for (int i = 0; i < rows; i++) {
+            // Few users, so most of them send the same message more than once
+            csv.append("u").append(random.nextInt(40)).append(',')
+                    .append(MESSAGES.get(random.nextInt(MESSAGES.size()))).append('\n');
+        }
+        Path in = Files.createTempFile("modes", ".csv");
+        Files.writeString(in, csv);
+        return in;
+    }
+
+    /** user id -> {total messages, average score} read back from a result file. */
+    public static Map<String, double[]> results(Path out) throws Exception {
+        Map<String, double[]> results = new TreeMap<>();
+        List<String> lines = Files.readAllLines(out);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(";");
+            results.put(fields[0], new double[]{Double.parseDouble(fields[1]), Double.parseDouble(fields[2])});
+        }
+        return results;
+    }
+
+    public static Map<String, double[]> run(CsvProcessor processor, Path in) throws Exception {
+        Path out = Files.createTempFile("modes-out", ".csv");
+        processor.process(in.toString(), out.toString());
+        return results(out);
+    }
+
+    public static void assertSameResults(Map<String, double[]> expected, Map<String, double[]> actual, String mode) {
+        assertEquals(expected.keySet(), actual.keySet(), mode + ": users");
+        expected.forEach((userId, e) -> {
+            double[] a = actual.get(userId);
+            assertEquals(e[0], a[0], mode + ": messages of " + userId);
+            // Results are written with 6 decimals; summing in another order may move the last one
+            assertEquals(e[1], a[1], 2e-6, mode + ": average of " + userId);
+        });
+    }
+
+    @Test
+    void every_mode_gives_the_results_of_row_mode() throws Exception {
+        Path in = input(ROWS);
+        var rowTranslation = new StubTranslation();
+        Map<String, double[]> expected = run(processor(rowTranslation, new StubScoring()), in);
+        assertEquals(ROWS, rowTranslation.calls.get());
+        assertEquals(ROWS, expected.values().stream().mapToDouble(r -> r[0]).sum(), 0.0);
+
+        var dedupTranslation = new StubTranslation();
+        var dedupScoring = new StubScoring();
+        var dedup = processor(dedupTranslation, dedupScoring);
+        dedup.dedupEnabled = true;
+        assertSameResults(expected, run(dedup, in), "dedup");
+        // One call per message that is distinct after normalization
+        assertTrue(dedupTranslation.calls.get() < MESSAGES.size(), "dedup calls: " + dedupTranslation.calls);
+        assertTrue(dedupScoring.calls.get() < MESSAGES.size(), "dedup calls: " + dedupScoring.calls);
+
+        var skipTranslation = new StubTranslation();
+        var skip = processor(skipTranslation, new StubScoring());
+        skip.skipEnglish = true;
+        assertSameResults(expected, run(skip, in), "skipEnglish");
+        assertTrue(skipTranslation.calls.get() < ROWS, "English rows are not translated");
+
+        var parallel = processor(new StubTranslation(), new StubScoring());
+        parallel.parseThreads = 4;
+        parallel.parseMinBytes = 0;
+        assertSameResults(expected, run(parallel, in), "parallel parsing");
+
+        var combined = processor(new StubTranslation(), new StubScoring());
+        combined.dedupEnabled = true;
+        combined.skipEnglish = true;
+        combined.parseThreads = 4;
+        combined.parseMinBytes = 0;
+        assertSameResults(expected, run(combined, in), "all combined");
+    }
+}
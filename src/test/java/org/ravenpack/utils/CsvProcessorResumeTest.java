@@ -0,0 +1,72 @@
+package org.ravenpack.utils;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.ravenpack.utils.CsvProcessorModesTest.*;
+
+/**
+ * Interrupts a checkpointed run halfway and checks that the rerun skips the committed rows and
+ * still produces the output of an uninterrupted run.
+ */
+public class CsvProcessorResumeTest {
+
+    private static final int ROWS = 3000;
+
+    /** Breaks the whole run, not just one row, once {@code breakAt} texts have been scored. */
+    public static final class BreakingScoring extends StubScoring {
+        public volatile int breakAt;
+
+        public BreakingScoring(int breakAt) {
+            this.breakAt = breakAt;
+        }
+
+        @Override
+        public Uni<Double> score(String text) {
+            if (calls.get() >= breakAt) {
+                throw new IllegalStateException("process killed");
+            }
+            return super.score(text);
+        }
+    }
+
+    public static CsvProcessor checkpointed(StubScoring scoring, Path dir) {
+        var processor = processor(new StubTranslation(), scoring);
+        processor.checkpointEnabled = true;
+        processor.checkpointDir = dir.toString();
+        processor.checkpointIntervalMs = Long.MAX_VALUE;
+        return processor;
+    }
+
+    @Test
+    void interrupted_run_resumes_from_its_checkpoint() throws Exception {
+        Path in = input(ROWS);
+        Map<String, double[]> expected = run(processor(new StubTranslation(), new StubScoring()), in);
+
+        Path dir = Files.createTempDirectory("resume");
+        Path out = Files.createTempFile("resume-out", ".csv");
+        assertThrows(Exception.class,
+                () -> checkpointed(new BreakingScoring(ROWS / 2), dir).process(in.toString(), out.toString()));
+        // The failure path wrote what had been committed so far
+        assertEquals(1, Files.list(dir).count(), "checkpoint written on failure");
+
+        var scoring = new StubScoring();
+        var progress = new PipelineProgress();
+        checkpointed(scoring, dir).process(in.toString(), out.toString(), progress);
+
+        long restored = progress.restored();
+        assertTrue(restored > 0 && restored < ROWS, "restored " + restored + " rows");
+        // Only the rows after the checkpoint went through the pipeline again
+        assertEquals(ROWS - restored, scoring.calls.get());
+        assertEquals(ROWS, progress.processed());
+        assertTrue(progress.throughput() * progress.elapsedSeconds() <= ROWS - restored + 1e-6,
+                "restored rows are not part of the rerun's throughput");
+        assertSameResults(expected, results(out), "resumed");
+        assertEquals(0, Files.list(dir).count(), "checkpoint deleted after a complete run");
+    }
+}
@@ -0,0 +1,93 @@
+package org.ravenpack.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs outside the job API all use the job tag {@code none}, often at the same time: their gauges
+ * must add up instead of taking over each other, and a run that stops early must not leave its
+ * calls counted.
+ */
+class PipelineMetricsTest {
+
+    private static double inFlight(MeterRegistry registry, String service) {
+        return registry.find("pipeline.inflight").tags("job", PipelineProgress.NO_JOB, "service", service)
+                .gauge().value();
+    }
+
+    private static double queued(MeterRegistry registry) {
+        return registry.find("pipeline.queue.depth").tag("job", PipelineProgress.NO_JOB).gauge().value();
+    }
+
+    @Test
+    void concurrent_runs_with_the_same_tag_add_up() {
+        var registry = new SimpleMeterRegistry();
+        var first = new PipelineMetrics(registry, PipelineProgress.NO_JOB);
+        long start = first.translationStarted();
+        var second = new PipelineMetrics(registry, PipelineProgress.NO_JOB);
+        second.translationStarted();
+
+        assertEquals(2, inFlight(registry, "translation"), "the second run kept the first one's call");
+        first.translationDone(start, true);
+        assertEquals(1, inFlight(registry, "translation"));
+        assertEquals(1, queued(registry));
+        first.scoringStarted();
+        assertEquals(0, queued(registry));
+        assertEquals(1, inFlight(registry, "scoring"));
+    }
+
+    @Test
+    void closing_a_cancelled_run_takes_back_its_levels() {
+        var registry = new SimpleMeterRegistry();
+        var cancelled = new PipelineMetrics(registry, PipelineProgress.NO_JOB);
+        long start = cancelled.translationStarted();
+        cancelled.translationStarted();
+        cancelled.translationSkipped(1);
+        var running = new PipelineMetrics(registry, PipelineProgress.NO_JOB);
+        running.translationStarted();
+
+        cancelled.close();
+        assertEquals(1, inFlight(registry, "translation"), "only the running run's call is left");
+        assertEquals(0, queued(registry));
+
+        // A call of the cancelled run that completes afterwards changes nothing
+        cancelled.translationDone(start, true);
+        cancelled.close();
+        assertEquals(1, inFlight(registry, "translation"));
+        assertEquals(0, queued(registry));
+    }
+
+    @Test
+    void removed_job_gets_fresh_gauges() {
+        var registry = new SimpleMeterRegistry();
+        new PipelineMetrics(registry, "job-1").translationStarted();
+        PipelineMetrics.remove(registry, "job-1");
+        assertNull(registry.find("pipeline.inflight").tag("job", "job-1").gauge());
+
+        new PipelineMetrics(registry, "job-1");
+        assertEquals(0, registry.find("pipeline.inflight").tags("job", "job-1", "service", "translation")
+                .gauge().value());
+    }
+
+    @Test
+    void dedup_ratio_is_recorded_per_run_and_job() {
+        var registry = new SimpleMeterRegistry();
+        new PipelineMetrics(registry, "job-1").dedupPlanned(100, 25);
+        new PipelineMetrics(registry, PipelineProgress.NO_JOB).dedupPlanned(100, 100);
+        new PipelineMetrics(registry, PipelineProgress.NO_JOB).dedupPlanned(100, 50);
+
+        var job = registry.find("pipeline.dedup.ratio").tag("job", "job-1").summary();
+        assertEquals(1, job.count());
+        assertEquals(0.75, job.mean(), 1e-9, "another job's runs do not overwrite it");
+        var untagged = registry.find("pipeline.dedup.ratio").tag("job", PipelineProgress.NO_JOB).summary();
+        assertEquals(2, untagged.count(), "concurrent runs under one tag each count");
+        assertEquals(0.25, untagged.mean(), 1e-9);
+        assertEquals(200, registry.find("pipeline.dedup.rows").tag("job", PipelineProgress.NO_JOB).counter().count());
+
+        PipelineMetrics.remove(registry, "job-1");
+        assertNull(registry.find("pipeline.dedup.ratio").tag("job", "job-1").summary());
+    }
+}